@@ -0,0 +1,51 @@
+package com.github.gavvydizzle;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the simplification step and board cloning on their own
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    @Param({"easy1", "easy2", "easy3", "medium1", "medium2", "medium3", "hard1", "hard2", "hard3(master)", "sudoku-solutions-easy-8128", "sudoku-solutions-medium-9896", "sudoku-solutions-hard-7720", "leetcode1", "leetcode2", "leetcode3", "leetcode4", "leetcode5", "leetcode6", "leetcode7", "leetcode8", "leetcode9"})
+    public String board;
+
+    private char[][] grid;
+    private Board simplified;
+
+    @Setup
+    public void setup() throws IOException {
+        grid = Puzzles.load(board);
+        simplified = new Board(grid);
+        simplified.simplify();
+    }
+
+    /**
+     * Baseline for {@link #simplify()}, which has to build a new board every time
+     */
+    @Benchmark
+    public Board construct() {
+        return new Board(grid);
+    }
+
+    @Benchmark
+    public Board simplify() {
+        Board b = new Board(grid);
+        b.simplify();
+        return b;
+    }
+
+    @Benchmark
+    public Board cloneBoard() {
+        return simplified.cloneBoard();
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.gavvydizzle;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and vector kernels on the row/col/grid checks, and on a full MRV solve that runs them at every node.
+ * The forked JVM adds the Vector API module, so both kernels can be measured when built with {@code -P jmh,vector}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class KernelBenchmark {
+
+    @Param({"easy1", "hard3(master)", "leetcode2"})
+    public String board;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    private char[][] grid;
+    private UnitKernel unitKernel;
+    private Board simplified;
+    private Board solved;
+
+    @Setup
+    public void setup() throws IOException {
+        grid = Puzzles.load(board);
+        unitKernel = UnitKernel.forName(kernel);
+        if (unitKernel == null) {
+            throw new IllegalStateException("The " + kernel + " kernel is not available, build with -P jmh,vector");
+        }
+
+        simplified = new Board(grid);
+        simplified.setKernel(unitKernel);
+        simplified.simplify();
+
+        solved = new Board(grid);
+        solved.setKernel(unitKernel);
+        solved.simplify();
+        solved.solveMRV();
+    }
+
+    /**
+     * The initial simplification, which starts by removing the answers of every row/col/grid
+     */
+    @Benchmark
+    public Board simplify() {
+        Board b = new Board(grid);
+        b.setKernel(unitKernel);
+        b.simplify();
+        return b;
+    }
+
+    @Benchmark
+    public boolean containsInvalidAnswers() {
+        return simplified.containsInvalidAnswers();
+    }
+
+    @Benchmark
+    public boolean containsEmptyPossibilities() {
+        return simplified.containsEmptyPossibilities();
+    }
+
+    /**
+     * A solved board, so every row/col/grid is checked
+     */
+    @Benchmark
+    public boolean isSolved() {
+        return solved.isSolved();
+    }
+
+    @Benchmark
+    public Board solveMRV() {
+        Board b = new Board(grid);
+        b.setKernel(unitKernel);
+        b.simplify();
+        b.solveMRV();
+        return b;
+    }
+}
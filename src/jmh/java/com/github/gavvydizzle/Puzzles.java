@@ -0,0 +1,29 @@
+package com.github.gavvydizzle;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Loads benchmark boards from an input file
+ */
+final class Puzzles {
+
+    // The file is read relative to the working directory, so run the benchmarks from the project root
+    static final String FILE = System.getProperty("sudoku.boards", "config.txt");
+
+    private Puzzles() {}
+
+    /**
+     * @param name The name of the board in the input file
+     * @return The board's grid
+     */
+    static char[][] load(String name) throws IOException {
+        try (BoardReader reader = new BoardReader(Path.of(FILE))) {
+            BoardInput input;
+            while ((input = reader.next()) != null) {
+                if (input.name().equals(name)) return input.grid();
+            }
+        }
+        throw new IllegalArgumentException("No board named " + name + " in " + FILE);
+    }
+}
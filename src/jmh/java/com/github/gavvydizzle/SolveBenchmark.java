@@ -0,0 +1,39 @@
+package com.github.gavvydizzle;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full solve of a board, including simplification, for each algorithm
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({"easy1", "easy2", "easy3", "medium1", "medium2", "medium3", "hard1", "hard2", "hard3(master)", "sudoku-solutions-easy-8128", "sudoku-solutions-medium-9896", "sudoku-solutions-hard-7720", "leetcode1", "leetcode2", "leetcode3", "leetcode4", "leetcode5", "leetcode6", "leetcode7", "leetcode8", "leetcode9"})
+    public String board;
+
+    @Param({"dfs", "mrv", "lcv", "flcv", "trail", "dlx"})
+    public String algorithm;
+
+    private char[][] grid;
+
+    @Setup
+    public void setup() throws IOException {
+        grid = Puzzles.load(board);
+    }
+
+    @Benchmark
+    public Board solve() {
+        Board b = new Board(grid);
+        b.simplify();
+        Main.solve(b, algorithm);
+        return b;
+    }
+}
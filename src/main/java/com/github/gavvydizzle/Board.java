@@ -1,51 +1,128 @@
 package com.github.gavvydizzle;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class Board {
 
-    private final Position[][] board;
-    private boolean solved = false;
+    // Positions in row-major order, see Geometry
+    private final Position[] board;
+    private final Geometry geometry;
+    // 9x9 boards propagate through the constants of Units, larger boards through the tables of geometry
+    private final boolean nine;
+    // Shared by every thread searching this board so the others can stop once a solution is found
+    private final AtomicBoolean solved = new AtomicBoolean();
     private int count = 0;
     private int solveDepth = 0;
+    private int solutions = 0;
+
+    // Units that lost a possible answer and still need to be checked for hidden singles, one bit per unit.
+    // 9x9 boards use the int mask. Larger boards use the long masks, where units from 64 up are only used by 25x25 boards
+    private int dirtyUnits = 0;
+    private long dirtyUnitsLow = 0;
+    private long dirtyUnitsHigh = 0;
+    // Set when propagation finds a position without possible answers or a row/col/grid that cannot hold a number
+    private boolean deadEnd = false;
+    private long propagations = 0;
+    private long unitChecks = 0;
+    // Shared with clones, since only the board a search is started from updates it
+    private final SearchStats stats;
+    // Extra inference run once singles are exhausted, or null to only use singles
+    private StrategyPipeline strategies = null;
+    // Stops the search once exhausted. Only read from the board a search is started from
+    private Budget budget = Budget.UNLIMITED;
+    // Runs the row/col/grid checks of every new board
+    private UnitKernel kernel = UnitKernel.SCALAR;
+    // Answer scores of fastLCV on 16x16 and 25x25 boards, one row of the board size per search depth
+    private int[] lcvScores = null;
+    // The XOR of the Zobrist keys of every solved position, see Geometry#zobrist.
+    // Only kept up to date while hashed is set, which is copied to clones
+    private long hash = 0;
+    private boolean hashed = false;
+    // Failed states of dfs and mrv, or null to search every state. Only read from the board a search is started from
+    private TranspositionTable table = null;
+    // The iterations at which the current run of a restarting search is cut off, and if it was
+    private long runLimit = Long.MAX_VALUE;
+    private boolean cutOff = false;
+    private int restarts = 0;
 
     /**
      * Creates a new sudoku board
-     * @param input A 9x9 character grid
+     * @param input A 9x9, 16x16 or 25x25 character grid. Answers above 9 are letters, see {@link Geometry#toAnswer(int)}
+     * @throws IllegalArgumentException If the grid size is not supported
      */
     public Board(char[][] input) {
-        board = new Position[9][9];
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                char c = input[i][j];
-                if (c == '.') {
-                    board[i][j] = new Position();
+        geometry = Geometry.of(input.length);
+        nine = geometry.size == 9;
+        board = new Position[geometry.cells];
+        stats = new SearchStats();
+
+        int n = geometry.size;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int ans = Geometry.toAnswer(input[i][j]);
+                if (ans == 0) {
+                    board[i*n+j] = new Position(0, geometry.all);
                 }
                 else {
-                    board[i][j] = new Position(c - '0');
+                    board[i*n+j] = new Position(ans);
                 }
             }
         }
     }
 
-    private Board() {
-        board = new Position[9][9];
+    /**
+     * Creates a new sudoku board from the answers of a packed record, see {@link PackedReader#board(long)}
+     * @param size The width of the board
+     * @param answers The answer of every position in row-major order, 0 for unknown positions
+     * @throws IllegalArgumentException If the size is not supported
+     */
+    public Board(int size, int[] answers) {
+        geometry = Geometry.of(size);
+        nine = geometry.size == 9;
+        board = new Position[geometry.cells];
+        stats = new SearchStats();
+
+        for (int i = 0; i < geometry.cells; i++) {
+            int ans = answers[i];
+            board[i] = ans == 0 ? new Position(0, geometry.all) : new Position(ans);
+        }
+    }
+
+    private Board(Geometry geometry, SearchStats stats) {
+        this.geometry = geometry;
+        this.stats = stats;
+        nine = geometry.size == 9;
+        board = new Position[geometry.cells];
     }
 
     /**
      * @return A clone of this board
      */
-    private Board cloneBoard() {
-        Board nb = new Board();
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                nb.board[i][j] = board[i][j].clonePosition();
-            }
+    Board cloneBoard() {
+        return copyInto(new Board(geometry, stats));
+    }
+
+    /**
+     * @return A clone of this board with its own statistics, so it can be searched on another thread
+     */
+    Board copyBoard() {
+        return copyInto(new Board(geometry, new SearchStats()));
+    }
+
+    private Board copyInto(Board nb) {
+        for (int i = 0; i < board.length; i++) {
+            nb.board[i] = board[i].clonePosition();
         }
+        nb.strategies = strategies;
+        nb.kernel = kernel;
+        nb.hash = hash;
+        nb.hashed = hashed;
         return nb;
     }
 
@@ -58,230 +135,373 @@ public class Board {
      */
     public void simplify() {
         removeInvalidAnswers();
+        if (nine) {
+            dirtyUnits = Units.ALL_UNITS;
+        }
+        else {
+            dirtyUnitsLow = geometry.allUnits;
+            dirtyUnitsHigh = geometry.allUnitsHigh;
+        }
         simplifyTrivialPositions();
-        simplifySingleOptions();
+        propagate();
     }
 
     /**
-     * Removes possible answers from a position by looking at the row/col/grid that it belongs to
+     * Sets the strategies that run after singles, both during the initial simplification and at every search node
+     * of the board based algorithms
+     * @param strategies The pipeline, or null to only use singles
      */
-    private void removeInvalidAnswers() {
-        Set<Integer> set = new HashSet<>(9);
-
-        // Row check
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                int ans = board[i][j].getAnswer();
-                if (isValidNumber(ans)) {
-                    set.add(ans);
-                }
-            }
-            if (set.isEmpty()) continue;
+    public void setStrategies(StrategyPipeline strategies) {
+        this.strategies = strategies;
+    }
 
-            for (int j = 0; j < 9; j++) {
-                int ans = board[i][j].getAnswer();
-                if (!isValidNumber(ans)) {
-                    board[i][j].removePossibleAnswers(set);
-                }
-            }
-            set.clear();
+    /**
+     * Sets the kernel that checks rows/cols/grids, which is also used by every clone of this board
+     * @param kernel The kernel, {@link UnitKernel#SCALAR} by default
+     */
+    public void setKernel(UnitKernel kernel) {
+        this.kernel = kernel;
+    }
+
+    /**
+     * Sets the table of failed states used by {@link #solveDFS()} and {@link #solveMRV()}.
+     * Each search starts a new search of the table, so its counters describe the last search
+     * @param table The table, or null to search every state
+     */
+    public void setTable(TranspositionTable table) {
+        this.table = table;
+        hashed = table != null;
+        if (!hashed) return;
+
+        // From here on the hash is updated as positions are solved
+        hash = 0;
+        for (int cell = 0; cell < board.length; cell++) {
+            int ans = board[cell].getAnswer();
+            if (isValidNumber(ans)) hash ^= geometry.zobrist[cell*geometry.size + ans-1];
         }
+    }
 
-        // Column check
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                int ans = board[j][i].getAnswer();
-                if (isValidNumber(ans)) {
-                    set.add(ans);
-                }
-            }
-            if (set.isEmpty()) continue;
+    TranspositionTable getTable() {
+        return table;
+    }
 
-            for (int j = 0; j < 9; j++) {
-                int ans = board[j][i].getAnswer();
-                if (!isValidNumber(ans)) {
-                    board[j][i].removePossibleAnswers(set);
-                }
-            }
-            set.clear();
+    /**
+     * Sets the budget of the next search. Once it runs out the search unwinds without a solution, see {@link #isTimedOut()}
+     * @param budget The budget, or {@link Budget#UNLIMITED}
+     */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    Budget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Takes the result of a search run on a copy of this board: its answers if it was solved, its iterations,
+     * depth and statistics
+     * @param copy A board from {@link #copyBoard()}
+     */
+    void acceptSearch(Board copy) {
+        count = copy.count;
+        solveDepth = copy.solveDepth;
+        restarts = copy.restarts;
+        propagations += copy.propagations;
+        unitChecks += copy.unitChecks;
+        stats.add(copy.stats);
+        if (copy.solved()) {
+            setSolution(copy.getAnswers());
         }
+    }
 
-        // 3x3 grid check
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        int ans = board[r*3+i][c*3+j].getAnswer();
-                        if (isValidNumber(ans)) {
-                            set.add(ans);
-                        }
-                    }
-                }
-                if (set.isEmpty()) continue;
-
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        int ans = board[r*3+i][c*3+j].getAnswer();
-                        if (!isValidNumber(ans)) {
-                            board[r*3+i][c*3+j].removePossibleAnswers(set);
-                        }
-                    }
-                }
-                set.clear();
-            }
+    /**
+     * Propagates singles, then runs the strategy pipeline whenever singles are exhausted.
+     * Every time a strategy removes a possible answer, singles are propagated again.
+     */
+    void propagate() {
+        simplifySingleOptions();
+        if (strategies == null) return;
+
+        while (!deadEnd && hasUnsolvedPosition() && strategies.apply(this)) {
+            simplifySingleOptions();
         }
     }
 
+    /**
+     * Removes possible answers from a position by looking at the row/col/grid that it belongs to
+     */
+    private void removeInvalidAnswers() {
+        kernel.removeInvalidAnswers(geometry, board);
+    }
+
     /**
      * Attempts to simplify the board by solving positions with only one possible answer remaining.
-     * This method will terminate when all cells have two or more possible answers or when a solution is found.
+     * Solving a position removes its answer from its peers, which solves any peer left with one possible answer,
+     * so a single pass over the board is enough.
      */
     private void simplifyTrivialPositions() {
-        boolean simplified;
-        do {
-            simplified = false;
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    if (board[i][j].getPossibleAnswers().size() == 1) {
-                        simplified = true;
-                        int ans = board[i][j].getPossibleAnswers().get(0);
-                        board[i][j].solve(ans);
-                        removePossibleAnswer(i, j, ans);
-                    }
-                }
+        for (int cell = 0; cell < board.length; cell++) {
+            if (board[cell].getNumPossibleAnswers() == 1) {
+                propagations++;
+                assign(cell, Candidates.first(board[cell].getCandidates()));
             }
-        } while (simplified);
+        }
     }
 
     /**
      * Attempts to simplify the board by solving positions where a number appears exactly once in a row/col/grid.
+     * Only units that lost a possible answer since they were last checked are visited.
+     * This method terminates when no such units are left or when a dead end is found.
      */
     private void simplifySingleOptions() {
-        // Keeps track of the frequency of each number
-        Map<Integer, Integer> map = new HashMap<>(9);
-
-        boolean simplified;
-        do {
-            simplified = false;
-
-            // Row check
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    for (int ans : board[i][j].getPossibleAnswers()) {
-                        map.put(ans, map.getOrDefault(ans, 0) + 1);
-                    }
-                }
-                if (map.isEmpty()) continue;
-
-                for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
-                    if (entry.getValue() == 1) { // Locate the position with this value and update it
-                        simplified = true;
-                        int ans = entry.getKey();
-
-                        for (int j = 0; j < 9; j++) {
-                            if (board[i][j].getPossibleAnswers().contains(ans)) {
-                                board[i][j].solve(ans);
-                                removePossibleAnswer(i, j, ans);
-                                break;
-                            }
-                        }
-                    }
-                }
-                map.clear();
+        if (!nine) {
+            simplifySingleOptionsLarge();
+            return;
+        }
+
+        while (dirtyUnits != 0 && !deadEnd) {
+            int[] unit = Units.UNITS[Integer.numberOfTrailingZeros(dirtyUnits)];
+            dirtyUnits &= dirtyUnits - 1;
+            unitChecks++;
+
+            // Numbers possible in at least one and in at least two positions of the unit
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int cell : unit) {
+                int mask = board[cell].getCandidates();
+                twice |= once & mask;
+                once |= mask;
+                int answer = board[cell].getAnswer();
+                if (isValidNumber(answer)) placed |= Candidates.bit(answer);
+            }
+            if ((once | placed) != Candidates.ALL) { // A number can no longer be placed in this unit
+                deadEnd = true;
+                return;
             }
 
-            // Column check
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    for (int ans : board[j][i].getPossibleAnswers()) {
-                        map.put(ans, map.getOrDefault(ans, 0) + 1);
+            for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                // Locate the position with this value and update it
+                int ans = Candidates.first(hidden);
+                for (int cell : unit) {
+                    if (board[cell].hasPossibleAnswer(ans)) {
+                        propagations++;
+                        assign(cell, ans);
+                        break;
                     }
                 }
-                if (map.isEmpty()) continue;
-
-                for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
-                    if (entry.getValue() == 1) { // Locate the position with this value and update it
-                        simplified = true;
-                        int ans = entry.getKey();
-
-                        for (int j = 0; j < 9; j++) {
-                            if (board[j][i].getPossibleAnswers().contains(ans)) {
-                                board[j][i].solve(ans);
-                                removePossibleAnswer(j, i, ans);
-                                break;
-                            }
-                        }
-                    }
-                }
-                map.clear();
-            }
-
-            // 3x3 grid check
-            for (int r = 0; r < 3; r++) {
-                for (int c = 0; c < 3; c++) {
-                    for (int i = 0; i < 3; i++) {
-                        for (int j = 0; j < 3; j++) {
-                            for (int ans : board[r * 3 + i][c * 3 + j].getPossibleAnswers()) {
-                                map.put(ans, map.getOrDefault(ans, 0) + 1);
-                            }
-                        }
-                    }
-                    if (map.isEmpty()) continue;
-
-                    for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
-                        if (entry.getValue() == 1) { // Locate the position with this value and update it
-                            simplified = true;
-                            int ans = entry.getKey();
-
-                            for (int i = 0; i < 3; i++) {
-                                for (int j = 0; j < 3; j++) {
-                                    if (board[r * 3 + i][c * 3 + j].getPossibleAnswers().contains(ans)) {
-                                        board[r * 3 + i][c * 3 + j].solve(ans);
-                                        removePossibleAnswer(r * 3 + i, c * 3 + j, ans);
-                                        break;
-                                    }
-                                }
-                            }
-                        }
+            }
+        }
+    }
+
+    /**
+     * {@link #simplifySingleOptions()} on a 16x16 or 25x25 board, whose units do not fit in an int
+     */
+    private void simplifySingleOptionsLarge() {
+        while (!deadEnd) {
+            int[] unit;
+            if (dirtyUnitsLow != 0) {
+                unit = geometry.units[Long.numberOfTrailingZeros(dirtyUnitsLow)];
+                dirtyUnitsLow &= dirtyUnitsLow - 1;
+            }
+            else if (dirtyUnitsHigh != 0) {
+                unit = geometry.units[64 + Long.numberOfTrailingZeros(dirtyUnitsHigh)];
+                dirtyUnitsHigh &= dirtyUnitsHigh - 1;
+            }
+            else {
+                break;
+            }
+            unitChecks++;
+
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int cell : unit) {
+                int mask = board[cell].getCandidates();
+                twice |= once & mask;
+                once |= mask;
+                int answer = board[cell].getAnswer();
+                if (isValidNumber(answer)) placed |= Candidates.bit(answer);
+            }
+            if ((once | placed) != geometry.all) {
+                deadEnd = true;
+                return;
+            }
+
+            for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                int ans = Candidates.first(hidden);
+                for (int cell : unit) {
+                    if (board[cell].hasPossibleAnswer(ans)) {
+                        propagations++;
+                        assign(cell, ans);
+                        break;
                     }
-                    map.clear();
                 }
             }
+        }
+    }
 
-            // New trivial positions probably exist, deal with them now to
-            // open up new possibles for simplification within this method
-            simplifyTrivialPositions();
+    /**
+     * Solves a position and removes its answer from the row/col/grid.
+     * @param cell The position
+     * @param ans The answer
+     */
+    private void assign(int cell, int ans) {
+        board[cell].solve(ans);
+        if (hashed) hash ^= geometry.zobrist[cell*geometry.size + ans-1];
+        if (nine) {
+            dirtyUnits |= Units.CELL_UNIT_MASK[cell];
+            removePossibleAnswerNine(cell, ans);
+        }
+        else {
+            markDirty(cell);
+            removePossibleAnswer(cell, ans);
+        }
+    }
 
-        } while (simplified);
+    /**
+     * Queues the row/col/grid of a position to be checked for hidden singles
+     */
+    private void markDirty(int cell) {
+        if (nine) {
+            dirtyUnits |= Units.CELL_UNIT_MASK[cell];
+            return;
+        }
+        dirtyUnitsLow |= geometry.unitMask[cell];
+        if (geometry.unitMaskHigh != null) dirtyUnitsHigh |= geometry.unitMaskHigh[cell];
     }
 
     /**
-     * Updates the possible answers of positions in this row/col/grid
-     * @param row The row
-     * @param col The column
-     * @param ans The answer to remove from affected positions
+     * {@link #removePossibleAnswer(int, int)} on a 9x9 board, specialized to the constants of Units
      */
-    private void removePossibleAnswer(int row, int col, int ans) {
-        // row
-        for (int i = 0; i < 9; i++) {
-            board[row][i].removePossibleAnswer(ans);
+    private void removePossibleAnswerNine(int cell, int ans) {
+        int bit = Candidates.bit(ans);
+        for (int peer : Units.PEERS[cell]) {
+            Position position = board[peer];
+            if ((position.getCandidates() & bit) == 0) continue;
+
+            position.removePossibleAnswers(bit);
+            dirtyUnits |= Units.CELL_UNIT_MASK[peer];
+
+            if (position.getCandidates() == 0) {
+                deadEnd = true;
+                return;
+            }
         }
 
-        //col
-        for (int i = 0; i < 9; i++) {
-            board[i][col].removePossibleAnswer(ans);
+        // The answer must be gone from every peer before solving one of them
+        for (int peer : Units.PEERS[cell]) {
+            if (deadEnd) return;
+
+            Position position = board[peer];
+            if (position.getNumPossibleAnswers() == 1) {
+                propagations++;
+                assign(peer, Candidates.first(position.getCandidates()));
+            }
         }
+    }
 
-        // 3x3 grid
-        int r = row/3;
-        int c = col/3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                board[r*3+i][c*3+j].removePossibleAnswer(ans);
+    /**
+     * Updates the possible answers of positions in this row/col/grid.
+     * Any position left with one possible answer is then solved.
+     * Stops early when a position is left without possible answers.
+     * @param cell The position
+     * @param ans The answer to remove from affected positions
+     */
+    private void removePossibleAnswer(int cell, int ans) {
+        int bit = Candidates.bit(ans);
+        for (int peer : geometry.peers[cell]) {
+            Position position = board[peer];
+            if ((position.getCandidates() & bit) == 0) continue;
+
+            position.removePossibleAnswers(bit);
+            markDirty(peer);
+
+            if (position.getCandidates() == 0) {
+                deadEnd = true;
+                return;
+            }
+        }
+
+        // The answer must be gone from every peer before solving one of them
+        for (int peer : geometry.peers[cell]) {
+            if (deadEnd) return;
+
+            Position position = board[peer];
+            if (position.getNumPossibleAnswers() == 1) {
+                propagations++;
+                assign(peer, Candidates.first(position.getCandidates()));
             }
         }
     }
 
+    /**
+     * Removes possible answers from an unsolved position. The position is solved if one possible answer is left.
+     * @param cell The position
+     * @param mask A candidate mask of the answers to remove
+     * @return True if at least one possible answer was removed
+     */
+    boolean eliminate(int cell, int mask) {
+        Position position = board[cell];
+        if ((position.getCandidates() & mask) == 0) return false;
+
+        position.removePossibleAnswers(mask);
+        markDirty(cell);
+
+        if (position.getCandidates() == 0) {
+            deadEnd = true;
+        }
+        else if (position.getNumPossibleAnswers() == 1) {
+            propagations++;
+            assign(cell, Candidates.first(position.getCandidates()));
+        }
+        return true;
+    }
+
+    /**
+     * Checks a simplified child board before it is searched and counts why it was rejected
+     * @return True if the child cannot lead to a solution
+     */
+    private static boolean isRejected(Board nb, SearchStats stats) {
+        if (nb.isDeadEnd()) {
+            stats.propagationDeadEnd();
+            return true;
+        }
+        if (nb.containsEmptyPossibilities()) {
+            stats.emptyDeadEnd();
+            return true;
+        }
+        if (nb.containsInvalidAnswers()) {
+            stats.invalidDeadEnd();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return True if the state of a child board is in the table of failed states
+     */
+    private boolean isKnownFailure(Board nb) {
+        return table != null && table.isFailed(nb.hash);
+    }
+
+    /**
+     * Records a child board whose subtree was fully searched without a solution
+     * @param before The iterations before the subtree was searched
+     */
+    private void backtrack(Board nb, int before) {
+        stats.backtrack();
+        if (table != null) table.storeFailed(nb.hash, count - before);
+    }
+
+    /**
+     * Adds the propagation work done on a child board to this board's counters
+     */
+    private void addPropagations(Board board) {
+        propagations += board.propagations;
+        unitChecks += board.unitChecks;
+    }
+
 
     //**********************
     //******** DFS *********
@@ -291,6 +511,7 @@ public class Board {
      * Finds a solution using DFS
      */
     public void solveDFS() {
+        if (table != null) table.newSearch();
         dfs(cloneBoard(), 0);
     }
 
@@ -298,6 +519,7 @@ public class Board {
      * Finds a solution using MRV
      */
     public void solveMRV() {
+        if (table != null) table.newSearch();
         mrv(cloneBoard(), 0);
     }
 
@@ -308,142 +530,508 @@ public class Board {
         lcv(cloneBoard(), 0);
     }
 
+    /**
+     * Finds a solution using LCV where each answer is scored by the number of possible answers it removes from its peers.
+     * Only the board of the answer being explored is kept, instead of a simplified board for every answer.
+     */
+    public void solveFastLCV() {
+        if (geometry.size != 9) lcvScores = new int[geometry.cells * geometry.size];
+        fastLCV(cloneBoard(), 0);
+    }
+
+    /**
+     * Finds a solution using MRV where the top levels of the search tree are split into fork-join tasks.
+     * Idle workers steal subtrees, and every worker stops once any of them finds a solution.
+     * The parallelism is that of the common pool.
+     */
+    public void solveParallelMRV() {
+        MRVTask task = new MRVTask(cloneBoard(), 0, new AtomicLong());
+        ForkJoinPool.commonPool().invoke(task);
+        count += task.count;
+        propagations += task.propagations;
+        unitChecks += task.unitChecks;
+        stats.add(task.stats);
+    }
+
+    /**
+     * Searches a subtree with MRV. Children are forked as new tasks near the top of the tree
+     * while the pool is short on queued work, otherwise they are searched in this task.
+     * Counters are kept per task and summed when the subtasks are joined.
+     */
+    private final class MRVTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        // Subtrees below this depth are always searched in the task that reached them
+        private static final int MAX_SPLIT_DEPTH = 6;
+
+        private final Board node;
+        private final int depth;
+        private int count = 0;
+        private long propagations = 0;
+        private long unitChecks = 0;
+        private final SearchStats stats = new SearchStats();
+        // Nodes searched by all tasks, only counted when the budget limits nodes
+        private final AtomicLong nodes;
+
+        private MRVTask(Board node, int depth, AtomicLong nodes) {
+            this.node = node;
+            this.depth = depth;
+            this.nodes = nodes;
+        }
+
+        @Override
+        protected void compute() {
+            search(node, depth);
+        }
+
+        private void search(Board board, int depth) {
+            if (solved.get()) return;
+            count++;
+            stats.visit(depth);
+            if (budget.isExhausted(budget.limitsNodes() ? nodes.incrementAndGet() : count)) return;
+
+            if (board.isSolved()) {
+                acceptSolution(board, depth);
+                return;
+            }
+
+            int x = board.findMRVPosition();
+            List<MRVTask> forks = null;
+            if (depth < MAX_SPLIT_DEPTH && getSurplusQueuedTaskCount() <= 2) {
+                forks = new ArrayList<>(board.board[x].getNumPossibleAnswers());
+            }
+
+            // Check all answers of this position by branching
+            for (int m = board.board[x].getCandidates(); m != 0; m &= m - 1) {
+                if (stopped()) break;
+
+                int ans = Candidates.first(m);
+                Board nb = board.cloneBoard();
+                nb.assign(x, ans);
+
+                // Attempt to simplify the new board
+                nb.propagate();
+                propagations += nb.propagations;
+                unitChecks += nb.unitChecks;
+
+                // Ignore invalid boards
+                if (isRejected(nb, stats)) continue;
+
+                if (forks != null) {
+                    forks.add(new MRVTask(nb, depth+1, nodes));
+                }
+                else {
+                    search(nb, depth+1);
+                    if (!stopped()) stats.backtrack();
+                }
+            }
+
+            if (forks == null || forks.isEmpty()) return;
+            invokeAll(forks);
+            for (MRVTask task : forks) {
+                count += task.count;
+                propagations += task.propagations;
+                unitChecks += task.unitChecks;
+                stats.add(task.stats);
+                if (!stopped()) stats.backtrack();
+            }
+        }
+    }
+
+    /**
+     * Finds a solution using MRV on a single flat board that is rewound on backtrack
+     * @see TrailSolver
+     */
+    public void solveTrail() {
+        requireNineByNine();
+        TrailSolver solver = new TrailSolver(getAnswers(), getCandidateMasks());
+        solver.setBudget(budget);
+        solver.solve();
+
+        count = solver.getCount();
+        solveDepth = solver.getSolveDepth();
+        propagations += solver.getPropagations();
+        unitChecks += solver.getUnitChecks();
+        stats.add(solver.getStats());
+        solved.set(solver.solved());
+        if (solved.get()) {
+            for (int i = 0; i < board.length; i++) {
+                board[i].setAnswer(solver.getAnswer(i));
+            }
+        }
+    }
+
+    /**
+     * Finds a solution by treating the board as an exact cover problem
+     * @see DancingLinks
+     */
+    public void solveDLX() {
+        requireNineByNine();
+        DancingLinks solver = new DancingLinks(getAnswers(), getCandidateMasks());
+        solver.setBudget(budget);
+        solver.solve();
+
+        count = solver.getCount();
+        solveDepth = solver.getSolveDepth();
+        stats.add(solver.getStats());
+        solved.set(solver.solved());
+        if (solved.get()) {
+            for (int i = 0; i < board.length; i++) {
+                board[i].setAnswer(solver.getAnswer(i));
+            }
+        }
+    }
+
+    private void requireNineByNine() {
+        if (geometry.size != 9) {
+            throw new UnsupportedOperationException("Only 9x9 boards are supported by this algorithm");
+        }
+    }
+
+    /**
+     * @return The answer of every position in row-major order, 0 when unsolved
+     */
+    int[] getAnswers() {
+        int[] answers = new int[geometry.cells];
+        for (int i = 0; i < board.length; i++) {
+            answers[i] = board[i].getAnswer();
+        }
+        return answers;
+    }
+
+    /**
+     * @return The candidate mask of every position in row-major order
+     */
+    private int[] getCandidateMasks() {
+        int[] candidates = new int[geometry.cells];
+        for (int i = 0; i < board.length; i++) {
+            candidates[i] = board[i].getCandidates();
+        }
+        return candidates;
+    }
+
+    /**
+     * Fills in a known solution without searching, for example one from a {@link SolutionCache}
+     * @param answers The answer of every position in row-major order
+     */
+    void setSolution(int[] answers) {
+        solved.set(true);
+        for (int i = 0; i < board.length; i++) {
+            board[i].setAnswer(answers[i]);
+        }
+    }
+
+    /**
+     * Copies the answers of a solved board into this board.
+     * Only the first solution found is accepted.
+     */
+    private void acceptSolution(Board board, int depth) {
+        if (!solved.compareAndSet(false, true)) return;
+
+        solveDepth = depth;
+        for (int i = 0; i < board.board.length; i++) {
+            this.board[i].setAnswer(board.board[i].getAnswer());
+        }
+    }
+
     private void dfs(Board board, int depth) {
         count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
 
         if (board.isSolved()) {
-            solveDepth = depth;
-            solved = true;
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    this.board[i][j].setAnswer(board.board[i][j].getAnswer());
-                }
-            }
+            acceptSolution(board, depth);
             return;
         }
 
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!isValidNumber(board.board[i][j].getAnswer())) {
+        for (int cell = 0; cell < board.board.length; cell++) {
+            if (!isValidNumber(board.board[cell].getAnswer())) {
 
-                    // Check all answers of this position by branching
-                    for (int ans : board.board[i][j].getPossibleAnswers()) {
-                        if (!solved) {
-                            Board nb = board.cloneBoard();
-                            nb.board[i][j].solve(ans);
-                            nb.removePossibleAnswer(i, j, ans);
+                // Check all answers of this position by branching
+                for (int m = board.board[cell].getCandidates(); m != 0; m &= m - 1) {
+                    if (!stopped()) {
+                        int ans = Candidates.first(m);
+                        Board nb = board.cloneBoard();
+                        nb.assign(cell, ans);
 
-                            // Attempt to simplify the new board
-                            nb.simplifySingleOptions();
+                        // Attempt to simplify the new board
+                        nb.propagate();
+                        addPropagations(nb);
 
-                            // Ignore invalid boards
-                            if (nb.containsEmptyPossibilities()) continue;
-                            if (nb.containsInvalidAnswers()) continue;
+                        // Ignore invalid boards and states that failed in an earlier search of this board, such as the pass before a requeue
+                        if (isRejected(nb, stats) || isKnownFailure(nb)) continue;
 
-                            dfs(nb, depth+1);
-                        }
+                        int before = count;
+                        dfs(nb, depth+1);
+                        if (!stopped()) backtrack(nb, before);
                     }
-                    return;
                 }
+                return;
             }
         }
     }
 
     private void mrv(Board board, int depth) {
         count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
 
         if (board.isSolved()) {
-            solveDepth = depth;
-            solved = true;
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    this.board[i][j].setAnswer(board.board[i][j].getAnswer());
-                }
-            }
+            acceptSolution(board, depth);
             return;
         }
 
-        // Determine the position via MRV. If multiple positions have the same number of values, the first one found will be chosen.
-        int x = -1;
-        int y = -1;
-        int min = 10;
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!isValidNumber(board.board[i][j].getAnswer())) {
-                    int numAnswers = board.board[i][j].getNumPossibleAnswers();
-                    if (numAnswers < min) {
-                        min = numAnswers;
-                        x = i;
-                        y = j;
-                    }
-                }
-            }
-        }
+        int x = board.findMRVPosition();
 
         // Check all answers of this position by branching
-        for (int ans : board.board[x][y].getPossibleAnswers()) {
-            if (!solved) {
+        for (int m = board.board[x].getCandidates(); m != 0; m &= m - 1) {
+            if (!stopped()) {
+                int ans = Candidates.first(m);
                 Board nb = board.cloneBoard();
-                nb.board[x][y].solve(ans);
-                nb.removePossibleAnswer(x, y, ans);
+                nb.assign(x, ans);
 
                 // Attempt to simplify the new board
-                nb.simplifySingleOptions();
+                nb.propagate();
+                addPropagations(nb);
 
-                // Ignore invalid boards
-                if (nb.containsEmptyPossibilities()) continue;
-                if (nb.containsInvalidAnswers()) continue;
+                // Ignore invalid boards and states that failed in an earlier search of this board, such as the pass before a requeue
+                if (isRejected(nb, stats) || isKnownFailure(nb)) continue;
 
+                int before = count;
                 mrv(nb, depth+1);
+                if (!stopped()) backtrack(nb, before);
             }
         }
     }
 
-    private void lcv(Board board, int depth) {
+    /**
+     * Finds a solution using MRV where the answers of each position are tried in a random order
+     * @param random The source of the answer order
+     */
+    public void solveRandomMRV(Random random) {
+        randomMRV(cloneBoard(), 0, random, false);
+    }
+
+    /**
+     * Finds a solution using MRV with restarts. Each run breaks ties between positions with the fewest possible answers
+     * at random and tries their answers in a random order. A run that searches more nodes than the schedule allows is
+     * abandoned and the search starts again from the simplified board, so an unlucky early choice only costs one run.
+     * The search ends once a run finds a solution or searches its whole tree without reaching its limit.
+     * @param schedule The node limit of each run
+     * @param seed The seed of the random choices, so a board is searched the same way every time
+     */
+    public void solveRestartMRV(RestartSchedule schedule, long seed) {
+        if (table != null) table.newSearch();
+        Random random = new Random(seed);
+        for (int run = 0; ; run++) {
+            long limit = schedule.limit(run);
+            runLimit = limit > Long.MAX_VALUE - count ? Long.MAX_VALUE : count + limit;
+            cutOff = false;
+            randomMRV(cloneBoard(), 0, random, true);
+            if (!cutOff || stopped()) break;
+            restarts++;
+        }
+        runLimit = Long.MAX_VALUE;
+    }
+
+    /**
+     * @param randomTies If ties between positions with the fewest possible answers are broken at random
+     */
+    private void randomMRV(Board board, int depth, Random random, boolean randomTies) {
         count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
+        if (count > runLimit) {
+            cutOff = true;
+            return;
+        }
 
         if (board.isSolved()) {
-            solveDepth = depth;
-            solved = true;
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    this.board[i][j].setAnswer(board.board[i][j].getAnswer());
+            acceptSolution(board, depth);
+            return;
+        }
+
+        int x = randomTies ? board.findMRVPosition(random) : board.findMRVPosition();
+        if (x == -1) return;
+
+        // Check all answers of this position by branching, picking the next answer at random
+        int remaining = board.board[x].getCandidates();
+        while (remaining != 0 && !stopped() && !cutOff) {
+            int bit = remaining;
+            for (int k = random.nextInt(Integer.bitCount(remaining)); k > 0; k--) {
+                bit &= bit - 1;
+            }
+            bit &= -bit;
+            remaining &= ~bit;
+
+            int ans = Candidates.first(bit);
+            Board nb = board.cloneBoard();
+            nb.assign(x, ans);
+
+            // Attempt to simplify the new board
+            nb.propagate();
+            addPropagations(nb);
+
+            // Ignore invalid boards and states already searched by an earlier run
+            if (isRejected(nb, stats) || isKnownFailure(nb)) continue;
+
+            int before = count;
+            randomMRV(nb, depth+1, random, randomTies);
+            // A subtree that was cut off was not fully searched
+            if (!stopped() && !cutOff) backtrack(nb, before);
+        }
+    }
+
+    /**
+     * Counts the solutions of a simplified board using MRV.
+     * The search stops as soon as the limit is reached, so a limit of 2 is enough to check that a board has a unique solution.
+     * The first solution found is kept in this board.
+     * @param limit The maximum number of solutions to count
+     * @return The number of solutions, at most the limit
+     */
+    public int countSolutions(int limit) {
+        solutions = 0;
+        if (deadEnd || containsEmptyPossibilities() || containsInvalidAnswers()) return 0;
+
+        countSolutions(cloneBoard(), 0, limit);
+        return solutions;
+    }
+
+    private void countSolutions(Board board, int depth, int limit) {
+        count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
+
+        if (board.isSolved()) {
+            if (solutions++ == 0) {
+                acceptSolution(board, depth);
+            }
+            return;
+        }
+
+        int x = board.findMRVPosition();
+        if (x == -1) return;
+
+        // Check all answers of this position by branching
+        for (int m = board.board[x].getCandidates(); m != 0; m &= m - 1) {
+            if (solutions >= limit || budget.isExhausted()) return;
+
+            int ans = Candidates.first(m);
+            Board nb = board.cloneBoard();
+            nb.assign(x, ans);
+
+            // Attempt to simplify the new board
+            nb.propagate();
+            addPropagations(nb);
+
+            // Ignore invalid boards
+            if (isRejected(nb, stats)) continue;
+
+            countSolutions(nb, depth+1, limit);
+            if (solutions < limit && !budget.isExhausted()) stats.backtrack();
+        }
+    }
+
+    /**
+     * @return A position with the fewest possible answers, chosen at random among ties, or -1 if every position is solved
+     */
+    private int findMRVPosition(Random random) {
+        int x = -1;
+        int min = geometry.size + 1;
+        int ties = 0;
+
+        for (int cell = 0; cell < board.length; cell++) {
+            if (!isValidNumber(board[cell].getAnswer())) {
+                int numAnswers = board[cell].getNumPossibleAnswers();
+                if (numAnswers < min) {
+                    min = numAnswers;
+                    x = cell;
+                    ties = 1;
+                }
+                // Keeps each of the tied positions with the same chance
+                else if (numAnswers == min && random.nextInt(++ties) == 0) {
+                    x = cell;
+                }
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Determines the position via MRV. If multiple positions have the same number of values, the first one found will be chosen.
+     * @return The unsolved position with the fewest possible answers
+     */
+    private int findMRVPosition() {
+        if (nine) return findMRVPositionNine();
+
+        int x = -1;
+        int min = geometry.size + 1;
+
+        for (int cell = 0; cell < board.length; cell++) {
+            if (!isValidNumber(board[cell].getAnswer())) {
+                int numAnswers = board[cell].getNumPossibleAnswers();
+                if (numAnswers < min) {
+                    min = numAnswers;
+                    x = cell;
+                }
+            }
+        }
+        return x;
+    }
+
+    /**
+     * {@link #findMRVPosition()} on a 9x9 board
+     */
+    private int findMRVPositionNine() {
+        int x = -1;
+        int min = 10;
+
+        for (int cell = 0; cell < 81; cell++) {
+            if (!isValidNumber(board[cell].getAnswer())) {
+                int numAnswers = board[cell].getNumPossibleAnswers();
+                if (numAnswers < min) {
+                    min = numAnswers;
+                    x = cell;
                 }
             }
+        }
+        return x;
+    }
+
+    private void lcv(Board board, int depth) {
+        count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
+
+        if (board.isSolved()) {
+            acceptSolution(board, depth);
             return;
         }
 
         PriorityQueue<LCV_Board> queue = new PriorityQueue<>();
         int x = -1;
-        int y = -1;
-        boolean found = false;
 
         // Find the next position to fill in
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!isValidNumber(board.board[i][j].getAnswer())) {
-                    x = i;
-                    y = j;
-                    found = true;
-                    break;
-                }
+        for (int cell = 0; cell < board.board.length; cell++) {
+            if (!isValidNumber(board.board[cell].getAnswer())) {
+                x = cell;
+                break;
             }
-            if (found) break;
         }
 
         // Order the possibilities for the selected position based on LCV
-        for (int ans : board.board[x][y].getPossibleAnswers()) {
+        for (int m = board.board[x].getCandidates(); m != 0; m &= m - 1) {
+            int ans = Candidates.first(m);
             Board nb = board.cloneBoard();
-            nb.board[x][y].solve(ans);
-            nb.removePossibleAnswer(x, y, ans);
+            nb.assign(x, ans);
 
             // Attempt to simplify the new board
-            nb.simplifySingleOptions();
+            nb.propagate();
+            addPropagations(nb);
 
             // Ignore invalid boards
-            if (nb.containsEmptyPossibilities()) continue;
-            if (nb.containsInvalidAnswers()) continue;
+            if (isRejected(nb, stats)) continue;
 
             if (nb.isSolved()) {
                 lcv(nb, depth+1);
@@ -457,59 +1045,101 @@ public class Board {
         // Recursively call ordered boards
         while (!queue.isEmpty()) {
             lcv(queue.poll().board(), depth+1);
-            if (solved) break;
+            if (stopped()) break;
+            stats.backtrack();
         }
     }
 
-    /**
-     * @return If an unsolved position contains an empty set of possibilities
-     */
-    private boolean containsEmptyPossibilities() {
-        for (int i = 8; i >= 0; i--) {
-            for (int j = 8; j >= 0; j--) {
-                if (!isValidNumber(board[i][j].getAnswer()) && board[i][j].getPossibleAnswers().isEmpty()) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
+    private void fastLCV(Board board, int depth) {
+        count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
 
-    /**
-     * @return If a board contains multiple of the same answer in a row/col/3x3
-     */
-    private boolean containsInvalidAnswers() {
-        Set<Integer> set = new HashSet<>(9);
+        if (board.isSolved()) {
+            acceptSolution(board, depth);
+            return;
+        }
 
-        // Row check
-        for (int i = 8; i >= 0; i--) {
-            for (int j = 8; j >= 0; j--) {
-                if (isValidNumber(board[i][j].getAnswer()) && !set.add(board[i][j].getAnswer())) return true;
+        // Find the next position to fill in
+        int x = -1;
+        for (int cell = 0; cell < board.board.length; cell++) {
+            if (!isValidNumber(board.board[cell].getAnswer())) {
+                x = cell;
+                break;
             }
-            set.clear();
         }
-
-        // Column check
-        for (int i = 8; i >= 0; i--) {
-            for (int j = 8; j >= 0; j--) {
-                if (isValidNumber(board[j][i].getAnswer()) && !set.add(board[j][i].getAnswer())) return true;
+        if (x == -1) return;
+
+        // Count how many peers would lose each answer. A 9x9 position has 20 peers,
+        // so the counts are packed 5 bits per answer. Larger boards use the row of lcvScores for this depth
+        int remaining = board.board[x].getCandidates();
+        long packed = 0;
+        int[] scores = lcvScores;
+        int offset = depth * geometry.size;
+        if (scores != null) Arrays.fill(scores, offset, offset + geometry.size, 0);
+        for (int peer : geometry.peers[x]) {
+            for (int m = board.board[peer].getCandidates() & remaining; m != 0; m &= m - 1) {
+                if (scores == null) packed += 1L << (5 * Integer.numberOfTrailingZeros(m));
+                else scores[offset + Integer.numberOfTrailingZeros(m)]++;
             }
-            set.clear();
         }
 
-        // 3x3 grid check
-        for (int r = 2; r >= 0; r--) {
-            for (int c = 2; c >= 0; c--) {
-                for (int i = 2; i >= 0; i--) {
-                    for (int j = 2; j >= 0; j--) {
-                        if (isValidNumber(board[r*3+i][c*3+j].getAnswer()) && !set.add(board[r*3+i][c*3+j].getAnswer())) return true;
-                    }
+        while (remaining != 0 && !stopped()) {
+            // Removing fewer possible answers means it is the lesser constraining value. Ties go to the smaller answer
+            int bit = 0;
+            int min = Integer.MAX_VALUE;
+            for (int m = remaining; m != 0; m &= m - 1) {
+                int d = Integer.numberOfTrailingZeros(m);
+                int score = scores == null ? (int) (packed >>> (5 * d)) & 31 : scores[offset + d];
+                if (score < min) {
+                    min = score;
+                    bit = m & -m;
                 }
-                set.clear();
             }
+            remaining &= ~bit;
+
+            int ans = Candidates.first(bit);
+            Board nb = board.cloneBoard();
+            nb.assign(x, ans);
+
+            // Attempt to simplify the new board
+            nb.propagate();
+            addPropagations(nb);
+
+            // Ignore invalid boards
+            if (isRejected(nb, stats)) continue;
+
+            fastLCV(nb, depth+1);
+            if (!stopped()) stats.backtrack();
         }
+    }
 
-        return false;
+    /**
+     * @return If the search found a solution or ran out of budget
+     */
+    private boolean stopped() {
+        return solved.get() || budget.isExhausted();
+    }
+
+    /**
+     * @return If propagation found that this board cannot be solved
+     */
+    boolean isDeadEnd() {
+        return deadEnd;
+    }
+
+    /**
+     * @return If an unsolved position contains an empty set of possibilities
+     */
+    boolean containsEmptyPossibilities() {
+        return kernel.containsEmptyPossibilities(board);
+    }
+
+    /**
+     * @return If a board contains multiple of the same answer in a row/col/3x3
+     */
+    boolean containsInvalidAnswers() {
+        return kernel.containsInvalidAnswers(geometry, board);
     }
 
 
@@ -518,11 +1148,9 @@ public class Board {
      * @return True if any position is blank
      */
     private boolean hasUnsolvedPosition() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!isValidNumber(board[i][j].getAnswer())) {
-                    return true;
-                }
+        for (int cell = 0; cell < board.length; cell++) {
+            if (!isValidNumber(board[cell].getAnswer())) {
+                return true;
             }
         }
 
@@ -534,45 +1162,7 @@ public class Board {
      * @return True if the board is solved
      */
     public boolean isSolved() {
-        if (hasUnsolvedPosition()) return false;
-
-        Set<Integer> set = new HashSet<>(9);
-
-        // Row check
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                set.add(board[i][j].getAnswer());
-            }
-
-            if (set.size() != 9) return false;
-            set.clear();
-        }
-
-        // Column check
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                set.add(board[j][i].getAnswer());
-            }
-
-            if (set.size() != 9) return false;
-            set.clear();
-        }
-
-        // 3x3 grid check
-        for (int r = 0; r < 3; r++) {
-            for (int c = 0; c < 3; c++) {
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        set.add(board[r*3+i][c*3+j].getAnswer());
-                    }
-                }
-
-                if (set.size() != 9) return false;
-                set.clear();
-            }
-        }
-
-        return true;
+        return kernel.isSolved(geometry, board);
     }
 
     private boolean isValidNumber(int n) {
@@ -586,12 +1176,10 @@ public class Board {
     private BigInteger getPermutations() {
         BigInteger total = BigInteger.ONE;
 
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                int numAnswers = board[i][j].getNumPossibleAnswers();
-                if (numAnswers > 0) {
-                    total = total.multiply(BigInteger.valueOf(numAnswers));
-                }
+        for (int cell = 0; cell < board.length; cell++) {
+            int numAnswers = board[cell].getNumPossibleAnswers();
+            if (numAnswers > 0) {
+                total = total.multiply(BigInteger.valueOf(numAnswers));
             }
         }
 
@@ -600,101 +1188,91 @@ public class Board {
 
 
     /**
-     * Outputs the current state of the board.
-     * Unsolved positions appear as a period.
+     * Outputs the possibilities for the board to the console.
+     * A solved position appears as a set containing only its answer.
      */
-    public void outputAnswers(FileWriter fileWriter) throws IOException {
-        StringBuilder output = new StringBuilder();
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                int ans = board[i][j].getAnswer();
-                if (isValidNumber(ans)) {
-                    output.append(ans).append("  ");
-                }
-                else {
-                    output.append(".");
-                }
-            }
-            if (i < 8) output.append("\n");
+    public void outputAnswerOrPossibilities() {
+        BoardWriter writer = new BoardWriter();
+        writer.writeAnswerOrPossibilities(this);
+        try {
+            writer.writeTo(System.out);
+        } catch (IOException e) {
+            e.printStackTrace();
         }
-
-        fileWriter.write(output + "\n");
+        System.out.flush();
     }
 
     /**
-     * Outputs the possibilities for the board.
-     * An empty set (denoted as {}) means that position is solved.
+     * @param cell The position in row-major order
+     * @return The answer of the position, 0 when unsolved
      */
-    public void outputPossibilities(FileWriter fileWriter) throws IOException {
-        StringBuilder output = new StringBuilder();
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                int ans = board[i][j].getAnswer();
-                if (isValidNumber(ans)) {
-                    output.append("{}          ");
-                    continue;
-                }
-
-                output.append("{");
-                for (int k = 1; k <= 9; k++) {
-                    if (board[i][j].getPossibleAnswers().contains(k)) {
-                        output.append(k);
-                    }
-                    else {
-                        output.append(".");
-                    }
-                }
-                output.append("} ");
-            }
-            if (i < 8) output.append("\n");
-        }
+    public int getAnswer(int cell) {
+        return board[cell].getAnswer();
+    }
 
-        fileWriter.write(output + "\n");
+    /**
+     * @param cell The position in row-major order
+     * @return The possible answers of the position as a candidate mask
+     */
+    public int getCandidates(int cell) {
+        return board[cell].getCandidates();
     }
 
     /**
-     * Outputs the possibilities for the board.
-     * An empty set (denoted as {}) means that position is solved.
+     * @return The width of the board
      */
-    public void outputAnswerOrPossibilities() {
-        StringBuilder output = new StringBuilder();
-
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                int ans = board[i][j].getAnswer();
-                if (isValidNumber(ans)) {
-                    output.append("{").append(ans).append("}         ");
-                    continue;
-                }
+    public int getSize() {
+        return geometry.size;
+    }
 
-                output.append("{");
-                for (int k = 1; k <= 9; k++) {
-                    if (board[i][j].getPossibleAnswers().contains(k)) {
-                        output.append(k);
-                    }
-                    else {
-                        output.append(".");
-                    }
-                }
-                output.append("} ");
-            }
-            if (i < 8) output.append("\n");
-        }
+    Geometry getGeometry() {
+        return geometry;
+    }
 
-        System.out.println(output);
+    /**
+     * @return Backtracks, dead ends and the peak depth of the last search
+     */
+    public SearchStats getStats() {
+        return stats;
     }
 
     public int getCount() {
         return count;
     }
 
+    /**
+     * @return The number of times the last restarting search started again
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
     public int getSolveDepth() {
         return solveDepth;
     }
 
     public boolean solved() {
-        return solved;
+        return solved.get();
+    }
+
+    /**
+     * @return If the last search stopped because its budget ran out
+     */
+    public boolean isTimedOut() {
+        return budget.isExhausted();
+    }
+
+    /**
+     * @return The number of positions solved by propagation rather than by branching
+     */
+    public long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * @return The number of row/col/grid hidden single checks made during propagation
+     */
+    public long getUnitChecks() {
+        return unitChecks;
     }
 }
@@ -0,0 +1,22 @@
+package com.github.gavvydizzle;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A file of boards to solve
+ */
+public interface BoardFile extends BoardSource, Closeable {
+
+    /**
+     * Opens a file by its extension: a {@link PackedReader} for packed files, otherwise a {@link BoardReader}
+     * @throws IOException If the file cannot be opened
+     */
+    static BoardFile open(Path path) throws IOException {
+        if (path.toString().endsWith(PackedCorpus.EXTENSION)) {
+            return new PackedReader(path);
+        }
+        return new BoardReader(path);
+    }
+}
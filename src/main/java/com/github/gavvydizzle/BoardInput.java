@@ -0,0 +1,9 @@
+package com.github.gavvydizzle;
+
+/**
+ * A board read from the input file before it is solved
+ * @param name The name of the board
+ * @param grid A 9x9, 16x16 or 25x25 character grid. Answers above 9 are letters, see {@link Geometry#toAnswer(int)}
+ */
+public record BoardInput(String name, char[][] grid) {
+}
@@ -0,0 +1,234 @@
+package com.github.gavvydizzle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams boards from an input file through a buffered channel.
+ * Bytes are parsed straight into board grids, so only board names become Strings.
+ * <p>
+ * Two formats are accepted and may be mixed in one file:
+ * <ul>
+ *     <li>A name line followed by n lines of n characters, with blank lines between boards</li>
+ *     <li>One board per line as n*n characters, named by its line number. Anything after a space or tab is ignored</li>
+ * </ul>
+ * The width n is 9, 16 or 25 and is taken from the first row. Answers above 9 are written as letters (A is 10).
+ * Unknown positions may be written as a period or 0. Files ending in {@code .gz} are decompressed while reading.
+ */
+public class BoardReader implements BoardFile {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private byte[] line = new byte[128];
+    private int lineLength;
+    private int lineNumber = 0;
+    private boolean eof = false;
+
+    public BoardReader(Path path) throws IOException {
+        if (path.toString().endsWith(".gz")) {
+            InputStream in = new GZIPInputStream(Files.newInputStream(path), BUFFER_SIZE);
+            channel = Channels.newChannel(in);
+        }
+        else {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        buffer.flip();
+    }
+
+    /**
+     * Reads boards from a stream as they arrive, such as the requests of a {@link SolverServer}
+     */
+    public BoardReader(InputStream in) {
+        channel = Channels.newChannel(in);
+        buffer.flip();
+    }
+
+    /**
+     * Reads the next board
+     * @return The board or null when the end of the input is reached
+     * @throws IOException If the input cannot be read or a board is malformed
+     */
+    @Override
+    public BoardInput next() throws IOException {
+        // Skip blank lines between boards
+        do {
+            if (!readLine()) return null;
+        } while (lineLength == 0);
+
+        // Most boards are 9x9, so a 9x9 board on one line is checked first with digits only
+        if (lineLength >= 81 && isDigits(81) && (lineLength == 81 || line[81] == ' ' || line[81] == '\t')) {
+            char[][] grid = new char[9][9];
+            for (int i = 0; i < 81; i++) {
+                grid[i / 9][i % 9] = toDigitCell(line[i]);
+            }
+            return new BoardInput("#" + lineNumber, grid);
+        }
+        BoardInput input = readLineBoard();
+        if (input != null) return input;
+
+        // A name line followed by one line per row. The rows of 9x9 boards are also checked with digits only
+        String name = new String(line, 0, lineLength, StandardCharsets.UTF_8);
+        if (!readLine()) {
+            throw new IOException("Board " + name + " has an invalid row at line " + lineNumber);
+        }
+        if (lineLength >= 9 && isDigits(9) && (lineLength == 9 || Geometry.toAnswer(line[9]) < 0)) {
+            return readNineRows(name);
+        }
+        return readRows(name);
+    }
+
+    /**
+     * Reads a board of any size written on the line in the line buffer, up to the first space or tab
+     * @return The board, or null if the line is not a board
+     */
+    private BoardInput readLineBoard() {
+        int length = 0;
+        while (length < lineLength && line[length] != ' ' && line[length] != '\t') {
+            length++;
+        }
+        int lineSize = (int) Math.sqrt(length);
+        if (lineSize * lineSize != length || !Geometry.isSupported(lineSize) || !isGrid(length, lineSize)) {
+            return null;
+        }
+
+        char[][] grid = new char[lineSize][lineSize];
+        for (int i = 0; i < length; i++) {
+            grid[i / lineSize][i % lineSize] = toCell(line[i]);
+        }
+        return new BoardInput("#" + lineNumber, grid);
+    }
+
+    /**
+     * Reads the rows of a board of any size whose first row is in the line buffer
+     */
+    private BoardInput readRows(String name) throws IOException {
+        // The width of the first row is the size of the board
+        int size = 0;
+        while (size < lineLength && Geometry.toAnswer(line[size]) >= 0) {
+            size++;
+        }
+        if (!Geometry.isSupported(size)) {
+            throw new IOException("Board " + name + " has an unsupported width of " + size + " at line " + lineNumber);
+        }
+
+        char[][] grid = new char[size][size];
+        for (int i = 0; i < size; i++) {
+            if ((i > 0 && !readLine()) || lineLength < size || !isGrid(size, size)) {
+                throw new IOException("Board " + name + " has an invalid row at line " + lineNumber);
+            }
+            for (int j = 0; j < size; j++) {
+                grid[i][j] = toCell(line[j]);
+            }
+        }
+        return new BoardInput(name, grid);
+    }
+
+    /**
+     * Reads the rows of a 9x9 board whose first row is in the line buffer
+     */
+    private BoardInput readNineRows(String name) throws IOException {
+        char[][] grid = new char[9][9];
+        for (int i = 0; i < 9; i++) {
+            if ((i > 0 && !readLine()) || lineLength < 9 || !isDigits(9)) {
+                throw new IOException("Board " + name + " has an invalid row at line " + lineNumber);
+            }
+            for (int j = 0; j < 9; j++) {
+                grid[i][j] = toDigitCell(line[j]);
+            }
+        }
+        return new BoardInput(name, grid);
+    }
+
+    /**
+     * @return If the first characters of the line are all positions of a board of this size
+     */
+    private boolean isGrid(int length, int size) {
+        for (int i = 0; i < length; i++) {
+            int ans = Geometry.toAnswer(line[i]);
+            if (ans < 0 || ans > size) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return If the first characters of the line are all positions of a 9x9 board, a digit or a period
+     */
+    private boolean isDigits(int length) {
+        for (int i = 0; i < length; i++) {
+            byte b = line[i];
+            if (b != '.' && (b < '0' || b > '9')) return false;
+        }
+        return true;
+    }
+
+    private static char toDigitCell(byte b) {
+        return b == '0' ? '.' : (char) b;
+    }
+
+    private static char toCell(byte b) {
+        return Geometry.toChar(Geometry.toAnswer(b));
+    }
+
+    /**
+     * Reads the next line into the line buffer without its line terminator
+     * @return False if the end of the input was reached before any character
+     */
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean read = false;
+
+        while (true) {
+            if (!buffer.hasRemaining() && !fill()) {
+                if (read) lineNumber++;
+                return read;
+            }
+            read = true;
+
+            byte b = buffer.get();
+            if (b == '\n') break;
+            if (lineLength == line.length) {
+                byte[] larger = new byte[line.length * 2];
+                System.arraycopy(line, 0, larger, 0, lineLength);
+                line = larger;
+            }
+            line[lineLength++] = b;
+        }
+
+        lineNumber++;
+        if (lineLength > 0 && line[lineLength - 1] == '\r') lineLength--;
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        if (eof) return false;
+
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+
+        if (n < 0) {
+            eof = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
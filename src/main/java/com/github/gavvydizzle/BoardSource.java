@@ -0,0 +1,16 @@
+package com.github.gavvydizzle;
+
+import java.io.IOException;
+
+/**
+ * A sequence of boards to solve
+ */
+@FunctionalInterface
+public interface BoardSource {
+
+    /**
+     * @return The next board or null when there are no boards left
+     * @throws IOException If the board cannot be read
+     */
+    BoardInput next() throws IOException;
+}
@@ -0,0 +1,196 @@
+package com.github.gavvydizzle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats output text straight into a reusable byte buffer.
+ * A writer is reset and reused for every board, so formatting a result does not create garbage
+ * once the buffer has grown to fit one board.
+ */
+public class BoardWriter {
+
+    private byte[] buffer = new byte[2048];
+    private int size = 0;
+
+    /**
+     * Writes the formatted bytes to the stream and empties this writer
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    public BoardWriter write(char c) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Writes text. ASCII characters are copied directly, anything else is encoded as UTF-8.
+     */
+    public BoardWriter write(String s) {
+        int length = s.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                size -= i;
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                ensureCapacity(bytes.length);
+                System.arraycopy(bytes, 0, buffer, size, bytes.length);
+                size += bytes.length;
+                return this;
+            }
+            buffer[size++] = (byte) c;
+        }
+        return this;
+    }
+
+    public BoardWriter write(long n) {
+        if (n < 0) {
+            write('-');
+            n = -n;
+        }
+
+        ensureCapacity(20);
+        int start = size;
+        do {
+            buffer[size++] = (byte) ('0' + n % 10);
+            n /= 10;
+        } while (n != 0);
+
+        // Digits were written in reverse
+        for (int i = start, j = size - 1; i < j; i++, j--) {
+            byte b = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = b;
+        }
+        return this;
+    }
+
+    public BoardWriter newLine() {
+        return write('\n');
+    }
+
+    /**
+     * Writes the current state of the board.
+     * Unsolved positions appear as a period.
+     */
+    public void writeAnswers(Board board) {
+        int n = board.getSize();
+        ensureCapacity(n * (3 * n + 1));
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int ans = board.getAnswer(i*n+j);
+                if (ans != 0) {
+                    buffer[size++] = (byte) Geometry.toChar(ans);
+                    buffer[size++] = ' ';
+                    buffer[size++] = ' ';
+                }
+                else {
+                    buffer[size++] = '.';
+                }
+            }
+            buffer[size++] = '\n';
+        }
+    }
+
+    /**
+     * Writes the possibilities for the board.
+     * An empty set (denoted as {}) means that position is solved.
+     */
+    public void writePossibilities(Board board) {
+        writeCandidateGrid(board, false);
+    }
+
+    /**
+     * Writes the possibilities for the board.
+     * A solved position appears as a set containing only its answer.
+     */
+    public void writeAnswerOrPossibilities(Board board) {
+        writeCandidateGrid(board, true);
+    }
+
+    private void writeCandidateGrid(Board board, boolean showAnswers) {
+        int n = board.getSize();
+        ensureCapacity(n * (n * (n + 3) + 1));
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                int ans = board.getAnswer(i*n+j);
+                buffer[size++] = '{';
+
+                if (ans != 0) {
+                    int padding = n + 1;
+                    if (showAnswers) {
+                        buffer[size++] = (byte) Geometry.toChar(ans);
+                        padding--;
+                    }
+                    buffer[size++] = '}';
+                    for (int k = 0; k < padding; k++) {
+                        buffer[size++] = ' ';
+                    }
+                    continue;
+                }
+
+                int mask = board.getCandidates(i*n+j);
+                for (int k = 1; k <= n; k++) {
+                    buffer[size++] = Candidates.contains(mask, k) ? (byte) Geometry.toChar(k) : (byte) '.';
+                }
+                buffer[size++] = '}';
+                buffer[size++] = ' ';
+            }
+            buffer[size++] = '\n';
+        }
+    }
+
+    /**
+     * Writes a board in the named input format, followed by the blank line that separates boards
+     */
+    public void writeInput(BoardInput input) {
+        write(input.name()).newLine();
+        int n = input.grid().length;
+        ensureCapacity(n * (n + 1) + 1);
+        for (char[] row : input.grid()) {
+            for (int j = 0; j < n; j++) {
+                buffer[size++] = (byte) row[j];
+            }
+            buffer[size++] = '\n';
+        }
+        buffer[size++] = '\n';
+    }
+
+    /**
+     * Writes the board as one line of n*n characters (81 for a 9x9 board), using a period for unsolved positions.
+     * This is the same format that {@link BoardReader} accepts.
+     */
+    public void writeLine(Board board) {
+        writeCells(board);
+        newLine();
+    }
+
+    /**
+     * Writes the characters of {@link #writeLine(Board)} without ending the line
+     */
+    public void writeCells(Board board) {
+        int cells = board.getSize() * board.getSize();
+        ensureCapacity(cells);
+        for (int cell = 0; cell < cells; cell++) {
+            buffer[size++] = (byte) Geometry.toChar(board.getAnswer(cell));
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra <= buffer.length) return;
+
+        byte[] larger = new byte[Math.max(buffer.length * 2, size + extra)];
+        System.arraycopy(buffer, 0, larger, 0, size);
+        buffer = larger;
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.gavvydizzle;
+
+/**
+ * Finds numbers whose possible positions in a row or column all lie in one 3x3 grid.
+ * The number must be placed in that part of the 3x3 grid, so it is removed from the rest of the 3x3 grid.
+ */
+public class BoxLineReduction implements Strategy {
+
+    @Override
+    public String getName() {
+        return "boxline";
+    }
+
+    @Override
+    public boolean apply(Board board) {
+        Geometry geometry = board.getGeometry();
+        int n = geometry.size;
+        boolean changed = false;
+        // The grids that each number is possible in, one bit per grid
+        int[] boxes = new int[n];
+
+        for (int line = 0; line < 2 * n; line++) {
+            for (int d = 0; d < n; d++) {
+                boxes[d] = 0;
+            }
+            for (int cell : geometry.units[line]) {
+                for (int m = board.getCandidates(cell); m != 0; m &= m - 1) {
+                    boxes[Integer.numberOfTrailingZeros(m)] |= 1 << (geometry.cellUnits[cell][2] - 2 * n);
+                }
+            }
+
+            for (int d = 0; d < n; d++) {
+                if (Integer.bitCount(boxes[d]) != 1) continue;
+
+                int box = 2 * n + Integer.numberOfTrailingZeros(boxes[d]);
+                for (int cell : geometry.units[box]) {
+                    if (geometry.cellUnits[cell][line / n] == line) continue;
+
+                    changed |= board.eliminate(cell, 1 << d);
+                    if (board.isDeadEnd()) return true;
+                }
+            }
+        }
+        return changed;
+    }
+}
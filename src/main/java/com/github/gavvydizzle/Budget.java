@@ -0,0 +1,84 @@
+package com.github.gavvydizzle;
+
+/**
+ * A search budget for one board, by wall-clock time and by number of search nodes.
+ * Searches check it at every node. The clock is only read every few hundred nodes, so a check is usually a comparison.
+ * Once a budget runs out it stays exhausted, which lets every thread of a parallel search unwind.
+ */
+public class Budget {
+
+    /**
+     * A budget that never runs out
+     */
+    public static final Budget UNLIMITED = new Budget(0, 0);
+
+    // The number of nodes between reads of the clock
+    private static final int CLOCK_INTERVAL = 256;
+
+    private final long deadline;
+    private final boolean hasDeadline;
+    private final long maxNodes;
+    private volatile boolean exhausted = false;
+
+    /**
+     * Starts a budget. The time limit counts from now.
+     * @param timeoutMillis The time limit in milliseconds, 0 for no limit
+     * @param maxNodes The node limit, 0 for no limit
+     */
+    public Budget(long timeoutMillis, long maxNodes) {
+        hasDeadline = timeoutMillis > 0;
+        deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        this.maxNodes = maxNodes;
+    }
+
+    private Budget(Budget budget) {
+        hasDeadline = budget.hasDeadline;
+        deadline = budget.deadline;
+        maxNodes = budget.maxNodes;
+    }
+
+    /**
+     * @return A budget with the same deadline and node limit that can be exhausted on its own
+     */
+    public Budget copy() {
+        return new Budget(this);
+    }
+
+    /**
+     * Stops every search using this budget at its next node.
+     * Does nothing on {@link #UNLIMITED}, which is shared by every board. Use a {@link #copy()} of it to cancel a search
+     */
+    public void exhaust() {
+        if (this == UNLIMITED) return;
+        exhausted = true;
+    }
+
+    /**
+     * Checks the budget at a search node
+     * @param nodes The number of nodes searched so far, including this one
+     * @return True if the search should stop
+     */
+    public boolean isExhausted(long nodes) {
+        if (exhausted) return true;
+
+        if ((maxNodes > 0 && nodes > maxNodes)
+                || (hasDeadline && nodes % CLOCK_INTERVAL == 0 && System.nanoTime() - deadline > 0)) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+
+    /**
+     * @return True if the budget ran out during a search
+     */
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    /**
+     * @return True if this budget limits the number of nodes
+     */
+    public boolean limitsNodes() {
+        return maxNodes > 0;
+    }
+}
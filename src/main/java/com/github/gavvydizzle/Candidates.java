@@ -0,0 +1,52 @@
+package com.github.gavvydizzle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for candidate sets stored as an int mask, 9 bits wide on a 9x9 board and up to 25 bits on larger boards.
+ * Bit (n-1) is set when the number n is still a possible answer.
+ */
+public final class Candidates {
+
+    // Every answer of a 9x9 board. Other sizes use Geometry#all
+    public static final int ALL = 0x1FF;
+
+    private Candidates() {}
+
+    /**
+     * @param answer A number in [1,25]
+     * @return The mask containing only this number
+     */
+    public static int bit(int answer) {
+        return 1 << (answer - 1);
+    }
+
+    /**
+     * @param mask A non-empty candidate mask
+     * @return The smallest number contained in the mask
+     */
+    public static int first(int mask) {
+        return Integer.numberOfTrailingZeros(mask) + 1;
+    }
+
+    public static int size(int mask) {
+        return Integer.bitCount(mask);
+    }
+
+    public static boolean contains(int mask, int answer) {
+        return (mask & bit(answer)) != 0;
+    }
+
+    /**
+     * @param mask A candidate mask
+     * @return The numbers contained in the mask in ascending order
+     */
+    public static List<Integer> toList(int mask) {
+        List<Integer> list = new ArrayList<>(Integer.bitCount(mask));
+        for (int m = mask; m != 0; m &= m - 1) {
+            list.add(first(m));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,378 @@
+package com.github.gavvydizzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The canonical form of a 9x9 puzzle under the symmetries that keep a sudoku valid: transposition, swapping bands
+ * or stacks, swapping rows within a band or columns within a stack, and relabeling the digits.
+ * Puzzles that are the same up to these symmetries share a key, and the transform to the key is kept
+ * so a solution can be mapped back to the puzzle it came from.
+ * <p>
+ * Positions are chosen by the pattern of givens first. For a column order the smallest row order is found by sorting,
+ * and only the column orders that give some row the smallest possible first row are searched. The orders that tie
+ * on the pattern are compared by their digits, relabeled in order of first appearance, and the smallest string is the key.
+ */
+public final class CanonicalForm {
+
+    private static final int N = 9;
+    // Every order of 3 items
+    private static final int[][] PERMS = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+    // PERMUTED_BITS[p][bits] reorders 3 bits by PERMS[p], where the first item is the highest bit
+    private static final int[][] PERMUTED_BITS = new int[PERMS.length][8];
+    // Every order of rows or columns that keeps bands and stacks together, indexed by ((b * 6 + w0) * 6 + w1) * 6 + w2
+    private static final int[][] LINE_ORDERS = new int[1296][N];
+
+    // Limit the orders that tie on the pattern and the row orders compared by digits, so very symmetric patterns stay cheap.
+    // Past a limit the key may depend on the orientation of the input, which only costs cache hits
+    private static final int MAX_TIES = 1024;
+    private static final int MAX_COMPARED = 4096;
+
+    static {
+        for (int p = 0; p < PERMS.length; p++) {
+            for (int bits = 0; bits < 8; bits++) {
+                int permuted = 0;
+                for (int i = 0; i < 3; i++) {
+                    if ((bits & (4 >> PERMS[p][i])) != 0) permuted |= 4 >> i;
+                }
+                PERMUTED_BITS[p][bits] = permuted;
+            }
+        }
+
+        for (int o = 0; o < LINE_ORDERS.length; o++) {
+            int[] perm = {o / 216, o / 36 % 6, o / 6 % 6, o % 6};
+            for (int k = 0; k < 3; k++) {
+                for (int i = 0; i < 3; i++) {
+                    LINE_ORDERS[o][k * 3 + i] = PERMS[perm[0]][k] * 3 + PERMS[perm[1 + k]][i];
+                }
+            }
+        }
+    }
+
+    private final String key;
+    // The original cell of each canonical cell
+    private final int[] cells;
+    // The canonical label of each original digit, index 0 is unused
+    private final int[] digits;
+
+    private CanonicalForm(String key, int[] cells, int[] digits) {
+        this.key = key;
+        this.cells = cells;
+        this.digits = digits;
+    }
+
+    /**
+     * Finds the canonical form of a puzzle
+     * @param board An unsimplified board
+     * @return The canonical form, or null if the board is not 9x9 or holds an answer that is not a digit
+     */
+    public static CanonicalForm of(Board board) {
+        if (board.getSize() != N) return null;
+
+        int[] givens = board.getAnswers();
+        for (int given : givens) {
+            if (given < 0 || given > N) return null;
+        }
+        return of(givens);
+    }
+
+    /**
+     * Finds the canonical form of a puzzle
+     * @param givens The 81 givens in row-major order, 0 when unknown
+     * @return The canonical form
+     */
+    public static CanonicalForm of(int[] givens) {
+        int[][] grids = {givens, transpose(givens)};
+
+        // Find the smallest pattern of givens and every transposition and column order that reaches it.
+        // The first row of that pattern is a row whose givens are moved as far right as possible,
+        // so only the column orders that do this for one of those rows are searched
+        int[][][] bits = {permutedStackBits(grids[0]), permutedStackBits(grids[1])};
+        int firstRow = Integer.MAX_VALUE;
+        for (int[][] rowBits : bits) {
+            for (int[] row : rowBits) {
+                firstRow = Math.min(firstRow, smallestMask(row));
+            }
+        }
+
+        int[] bestPattern = {Integer.MAX_VALUE, 0, 0};
+        List<int[]> ties = new ArrayList<>();
+        boolean[][] searched = new boolean[2][LINE_ORDERS.length];
+        List<Integer> orders = new ArrayList<>();
+        int[] masks = new int[N];
+        int[] pattern = new int[3];
+        for (int t = 0; t < 2; t++) {
+            for (int[] row : bits[t]) {
+                if (smallestMask(row) != firstRow) continue;
+
+                orders.clear();
+                columnOrders(row, firstRow, orders);
+                for (int o : orders) {
+                    if (searched[t][o]) continue;
+                    searched[t][o] = true;
+
+                    rowMasks(bits[t], o, masks);
+                    sortedPattern(masks, pattern);
+
+                    int cmp = compare(pattern, bestPattern);
+                    if (cmp > 0) continue;
+                    if (cmp < 0) {
+                        System.arraycopy(pattern, 0, bestPattern, 0, pattern.length);
+                        ties.clear();
+                    }
+                    if (ties.size() < MAX_TIES) {
+                        ties.add(new int[] {t, o});
+                    }
+                }
+            }
+        }
+
+        // Compare the digits of every row order that gives the smallest pattern
+        int[] best = null;
+        int[] candidate = new int[N * N];
+        int[] relabel = new int[N + 1];
+        int bestT = 0;
+        int[] bestRows = null;
+        int[] bestCols = null;
+        int[] bestRelabel = null;
+        int compared = 0;
+        for (int[] tie : ties) {
+            if (compared >= MAX_COMPARED) break;
+            int[] grid = grids[tie[0]];
+            int[] cols = LINE_ORDERS[tie[1]];
+            rowMasks(bits[tie[0]], tie[1], masks);
+
+            for (int[] rows : rowOrders(masks, bestPattern)) {
+                if (compared++ >= MAX_COMPARED) break;
+
+                if (relabeled(grid, rows, cols, best, candidate, relabel)) {
+                    if (best == null) best = new int[N * N];
+                    System.arraycopy(candidate, 0, best, 0, best.length);
+                    bestT = tie[0];
+                    bestRows = rows;
+                    bestCols = cols;
+                    bestRelabel = relabel.clone();
+                }
+            }
+        }
+
+        int[] cells = new int[N * N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                cells[i * N + j] = bestT == 0 ? bestRows[i] * N + bestCols[j] : bestCols[j] * N + bestRows[i];
+            }
+        }
+
+        // Digits that are not given take the remaining labels in order
+        int next = 1;
+        for (int d = 1; d <= N; d++) {
+            if (bestRelabel[d] != 0) next++;
+        }
+        for (int d = 1; d <= N; d++) {
+            if (bestRelabel[d] == 0) bestRelabel[d] = next++;
+        }
+
+        char[] key = new char[N * N];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = (char) ('0' + best[i]);
+        }
+        return new CanonicalForm(new String(key), cells, bestRelabel);
+    }
+
+    private static int[] transpose(int[] grid) {
+        int[] transposed = new int[N * N];
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                transposed[j * N + i] = grid[i * N + j];
+            }
+        }
+        return transposed;
+    }
+
+    /**
+     * @return For each row, the 3 bits marking the givens of stack s reordered by PERMS[w] at index s * 6 + w.
+     * The first column is the highest bit
+     */
+    private static int[][] permutedStackBits(int[] grid) {
+        int[][] bits = new int[N][18];
+        for (int r = 0; r < N; r++) {
+            for (int s = 0; s < 3; s++) {
+                int stack = 0;
+                for (int i = 0; i < 3; i++) {
+                    if (grid[r * N + s * 3 + i] != 0) stack |= 4 >> i;
+                }
+                for (int w = 0; w < PERMS.length; w++) {
+                    bits[r][s * 6 + w] = PERMUTED_BITS[w][stack];
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * @return The smallest 9 bit pattern a row can have, with the fewest givens in the first stack and every given at the right of its stack
+     */
+    private static int smallestMask(int[] rowBits) {
+        int a = Integer.bitCount(rowBits[0]), b = Integer.bitCount(rowBits[6]), c = Integer.bitCount(rowBits[12]);
+        if (a > b) { int tmp = a; a = b; b = tmp; }
+        if (b > c) { int tmp = b; b = c; c = tmp; }
+        if (a > b) { int tmp = a; a = b; b = tmp; }
+        return ((1 << a) - 1) << 6 | ((1 << b) - 1) << 3 | ((1 << c) - 1);
+    }
+
+    /**
+     * Adds every column order that gives a row the target pattern
+     */
+    private static void columnOrders(int[] rowBits, int target, List<Integer> orders) {
+        for (int b = 0; b < PERMS.length; b++) {
+            int[] stacks = PERMS[b];
+            for (int w0 = 0; w0 < 6; w0++) {
+                if (rowBits[stacks[0] * 6 + w0] != target >> 6) continue;
+                for (int w1 = 0; w1 < 6; w1++) {
+                    if (rowBits[stacks[1] * 6 + w1] != (target >> 3 & 7)) continue;
+                    for (int w2 = 0; w2 < 6; w2++) {
+                        if (rowBits[stacks[2] * 6 + w2] != (target & 7)) continue;
+                        orders.add(((b * 6 + w0) * 6 + w1) * 6 + w2);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the 9 bit pattern of givens of each row after reordering the columns by LINE_ORDERS[o]
+     */
+    private static void rowMasks(int[][] bits, int o, int[] masks) {
+        int[] stacks = PERMS[o / 216];
+        int s0 = stacks[0] * 6 + o / 36 % 6;
+        int s1 = stacks[1] * 6 + o / 6 % 6;
+        int s2 = stacks[2] * 6 + o % 6;
+        for (int r = 0; r < N; r++) {
+            masks[r] = bits[r][s0] << 6 | bits[r][s1] << 3 | bits[r][s2];
+        }
+    }
+
+    /**
+     * Writes the smallest pattern over all row orders. Each band is sorted into one number, then the bands are sorted.
+     */
+    private static void sortedPattern(int[] masks, int[] pattern) {
+        for (int b = 0; b < 3; b++) {
+            int x = masks[b * 3], y = masks[b * 3 + 1], z = masks[b * 3 + 2];
+            if (x > y) { int tmp = x; x = y; y = tmp; }
+            if (y > z) { int tmp = y; y = z; z = tmp; }
+            if (x > y) { int tmp = x; x = y; y = tmp; }
+            pattern[b] = (x << 18) | (y << 9) | z;
+        }
+        if (pattern[0] > pattern[1]) swap(pattern, 0, 1);
+        if (pattern[1] > pattern[2]) swap(pattern, 1, 2);
+        if (pattern[0] > pattern[1]) swap(pattern, 0, 1);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    private static int compare(int[] a, int[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) return Integer.compare(a[i], b[i]);
+        }
+        return 0;
+    }
+
+    /**
+     * @return Every row order that arranges the row masks into the pattern
+     */
+    private static List<int[]> rowOrders(int[] masks, int[] pattern) {
+        List<int[]> orders = new ArrayList<>();
+        for (int b = 0; b < PERMS.length; b++) {
+            int[] bands = PERMS[b];
+            for (int w0 = 0; w0 < 6; w0++) {
+                if (bandKey(masks, bands[0], w0) != pattern[0]) continue;
+                for (int w1 = 0; w1 < 6; w1++) {
+                    if (bandKey(masks, bands[1], w1) != pattern[1]) continue;
+                    for (int w2 = 0; w2 < 6; w2++) {
+                        if (bandKey(masks, bands[2], w2) != pattern[2]) continue;
+                        orders.add(LINE_ORDERS[((b * 6 + w0) * 6 + w1) * 6 + w2]);
+                    }
+                }
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * @return The masks of a band's rows reordered by PERMS[w], as one number
+     */
+    private static int bandKey(int[] masks, int band, int w) {
+        int[] perm = PERMS[w];
+        return (masks[band * 3 + perm[0]] << 18) | (masks[band * 3 + perm[1]] << 9) | masks[band * 3 + perm[2]];
+    }
+
+    /**
+     * Writes the reordered grid with digits relabeled in order of first appearance, stopping early once it is larger than the best
+     * @return True if the candidate is smaller than the best, or there is no best yet
+     */
+    private static boolean relabeled(int[] grid, int[] rows, int[] cols, int[] best, int[] candidate, int[] relabel) {
+        Arrays.fill(relabel, 0);
+        int next = 1;
+        boolean smaller = best == null;
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                int v = grid[rows[i] * N + cols[j]];
+                if (v != 0) {
+                    if (relabel[v] == 0) relabel[v] = next++;
+                    v = relabel[v];
+                }
+                candidate[i * N + j] = v;
+
+                if (!smaller) {
+                    int b = best[i * N + j];
+                    if (v > b) return false;
+                    if (v < b) smaller = true;
+                }
+            }
+        }
+        return smaller;
+    }
+
+    /**
+     * @return The canonical puzzle as 81 digits, 0 when unknown
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Maps answers of the original puzzle to the canonical puzzle
+     * @param answers The answers in row-major order of the original puzzle
+     * @return The canonical answers in row-major order
+     */
+    public byte[] toCanonical(int[] answers) {
+        byte[] canonical = new byte[N * N];
+        for (int i = 0; i < canonical.length; i++) {
+            canonical[i] = (byte) digits[answers[cells[i]]];
+        }
+        return canonical;
+    }
+
+    /**
+     * Maps canonical answers back to the original puzzle
+     * @param canonical The canonical answers in row-major order
+     * @return The answers in row-major order of the original puzzle
+     */
+    public int[] fromCanonical(byte[] canonical) {
+        int[] labels = new int[N + 1];
+        for (int d = 1; d <= N; d++) {
+            labels[digits[d]] = d;
+        }
+
+        int[] answers = new int[N * N];
+        for (int i = 0; i < canonical.length; i++) {
+            answers[cells[i]] = labels[canonical[i]];
+        }
+        return answers;
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.gavvydizzle;
+
+/**
+ * Solves a board as an exact cover problem using Knuth's Algorithm X with Dancing Links.
+ * The 324 constraints (cell, row-number, col-number, grid-number) are columns and the
+ * 729 cell/number placements are rows. All links are stored in primitive arrays indexed by node.
+ */
+public class DancingLinks {
+
+    private static final int COLUMNS = 324;
+    private static final int ROOT = 0;
+
+    // Node 0 is the root, nodes [1,324] are column headers and the remaining nodes belong to placements
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] placement;
+    private final int[] size = new int[COLUMNS + 1];
+
+    // The node chosen at each depth of the search
+    private final int[] chosen = new int[81];
+    private final int[] answers = new int[81];
+    private boolean valid = true;
+
+    private boolean solved = false;
+    private int count = 0;
+    private int solveDepth = 0;
+    private final SearchStats stats = new SearchStats();
+    private Budget budget = Budget.UNLIMITED;
+
+    /**
+     * @param answers The answer of each cell in row-major order, 0 when unsolved
+     * @param candidates The candidate mask of each cell in row-major order
+     */
+    public DancingLinks(int[] answers, int[] candidates) {
+        int nodes = 1 + COLUMNS + 729 * 4;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        placement = new int[nodes];
+
+        System.arraycopy(answers, 0, this.answers, 0, 81);
+
+        // Columns satisfied by solved cells are left out of the header list
+        boolean[] satisfied = new boolean[COLUMNS + 1];
+        for (int cell = 0; cell < 81; cell++) {
+            if (answers[cell] == 0) continue;
+            for (int col : constraints(cell, answers[cell])) {
+                if (satisfied[col]) valid = false;
+                satisfied[col] = true;
+            }
+        }
+
+        left[ROOT] = ROOT;
+        right[ROOT] = ROOT;
+        for (int col = 1; col <= COLUMNS; col++) {
+            up[col] = col;
+            down[col] = col;
+            column[col] = col;
+            if (!satisfied[col]) {
+                left[col] = left[ROOT];
+                right[col] = ROOT;
+                right[left[ROOT]] = col;
+                left[ROOT] = col;
+            }
+        }
+
+        int node = COLUMNS + 1;
+        for (int cell = 0; cell < 81; cell++) {
+            if (answers[cell] != 0) continue;
+
+            for (int m = candidates[cell]; m != 0; m &= m - 1) {
+                int ans = Candidates.first(m);
+                int[] cols = constraints(cell, ans);
+                if (satisfied[cols[1]] || satisfied[cols[2]] || satisfied[cols[3]]) continue;
+
+                int first = node;
+                for (int col : cols) {
+                    column[node] = col;
+                    placement[node] = cell * 9 + ans - 1;
+                    size[col]++;
+
+                    up[node] = up[col];
+                    down[node] = col;
+                    down[up[col]] = node;
+                    up[col] = node;
+
+                    left[node] = node == first ? node : node - 1;
+                    right[node] = first;
+                    right[left[node]] = node;
+                    left[first] = node;
+                    node++;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The four columns covered by placing the answer in the cell
+     */
+    private static int[] constraints(int cell, int ans) {
+        int row = cell / 9;
+        int col = cell % 9;
+        int box = (row / 3) * 3 + col / 3;
+        return new int[] {
+                1 + cell,
+                1 + 81 + row * 9 + ans - 1,
+                1 + 162 + col * 9 + ans - 1,
+                1 + 243 + box * 9 + ans - 1
+        };
+    }
+
+    /**
+     * Sets the budget of the search. Once it runs out the search stops without a solution
+     * @param budget The budget, or {@link Budget#UNLIMITED}
+     */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Finds a solution by searching from the current state
+     */
+    public void solve() {
+        if (valid) search(0);
+    }
+
+    private void search(int depth) {
+        count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
+
+        if (right[ROOT] == ROOT) {
+            solveDepth = depth;
+            solved = true;
+            for (int i = 0; i < depth; i++) {
+                int p = placement[chosen[i]];
+                answers[p / 9] = p % 9 + 1;
+            }
+            return;
+        }
+
+        // Choose the column with the fewest remaining rows
+        int c = right[ROOT];
+        for (int col = right[c]; col != ROOT; col = right[col]) {
+            if (size[col] < size[c]) c = col;
+        }
+        // A cell or number that can no longer be covered
+        if (size[c] == 0) {
+            stats.emptyDeadEnd();
+            return;
+        }
+
+        cover(c);
+        for (int r = down[c]; r != c && !solved && !budget.isExhausted(); r = down[r]) {
+            chosen[depth] = r;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+
+            search(depth + 1);
+            if (!solved && !budget.isExhausted()) stats.backtrack();
+
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+        }
+        uncover(c);
+    }
+
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+
+    public int getAnswer(int cell) {
+        return answers[cell];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public int getSolveDepth() {
+        return solveDepth;
+    }
+
+    public boolean solved() {
+        return solved;
+    }
+}
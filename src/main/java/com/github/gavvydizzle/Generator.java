@@ -0,0 +1,131 @@
+package com.github.gavvydizzle;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates boards with a unique solution.
+ * A random complete board is found by searching an empty board with a random answer order.
+ * Answers are then removed in a random order, and a removal is kept only while the board still has a unique solution.
+ * <p>
+ * Every board is generated from its own seed, derived from the base seed and the board's index,
+ * so the output does not depend on how many threads are used.
+ */
+public class Generator {
+
+    // Complete boards to try before giving up on reaching the target number of answers. Without a target one is enough
+    private static final int MAX_ATTEMPTS = 20;
+
+    private final long seed;
+    private final int targetClues;
+    private final long maxNodes;
+
+    /**
+     * @param seed The base seed
+     * @param targetClues Answers are no longer removed once this many remain, 0 to remove as many as possible
+     * @param maxNodes The maximum number of search nodes the uniqueness check may use, 0 for no limit.
+     *                 Lower values produce easier boards
+     */
+    public Generator(long seed, int targetClues, long maxNodes) {
+        this.seed = seed;
+        this.targetClues = targetClues;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param index The index of the board, which selects its seed
+     * @return A board with a unique solution, named after its seed and index
+     */
+    public BoardInput generate(int index) {
+        Random random = new Random(seed * 0x9E3779B97F4A7C15L + index);
+
+        int[] best = null;
+        int bestClues = 82;
+        int attempts = targetClues > 0 ? MAX_ATTEMPTS : 1;
+        for (int attempt = 0; attempt < attempts && bestClues > targetClues; attempt++) {
+            int[] answers = removeAnswers(completeBoard(random), random);
+            int clues = countClues(answers);
+            if (clues < bestClues) {
+                best = answers;
+                bestClues = clues;
+            }
+        }
+
+        return new BoardInput("gen-" + seed + "-" + index, toGrid(best));
+    }
+
+    /**
+     * @return The answers of a random complete board in row-major order
+     */
+    private static int[] completeBoard(Random random) {
+        char[][] empty = new char[9][9];
+        for (char[] row : empty) {
+            Arrays.fill(row, '.');
+        }
+
+        Board board = new Board(empty);
+        board.simplify();
+        board.solveRandomMRV(random);
+
+        int[] answers = new int[81];
+        for (int cell = 0; cell < 81; cell++) {
+            answers[cell] = board.getAnswer(cell);
+        }
+        return answers;
+    }
+
+    private int[] removeAnswers(int[] answers, Random random) {
+        int[] order = new int[81];
+        for (int i = 0; i < 81; i++) {
+            order[i] = i;
+        }
+        for (int i = 80; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+
+        int clues = 81;
+        for (int cell : order) {
+            if (clues <= targetClues) break;
+
+            int ans = answers[cell];
+            answers[cell] = 0;
+            if (hasUniqueSolution(answers)) {
+                clues--;
+            }
+            else {
+                answers[cell] = ans;
+            }
+        }
+        return answers;
+    }
+
+    /**
+     * @return True if the board has one solution that the search finds within the node limit
+     */
+    private boolean hasUniqueSolution(int[] answers) {
+        Board board = new Board(toGrid(answers));
+        board.simplify();
+        // Boards that need more nodes are abandoned as soon as the limit is passed
+        if (maxNodes > 0) board.setBudget(new Budget(0, maxNodes));
+        return board.countSolutions(2) == 1 && !board.isTimedOut();
+    }
+
+    private static int countClues(int[] answers) {
+        int clues = 0;
+        for (int ans : answers) {
+            if (ans != 0) clues++;
+        }
+        return clues;
+    }
+
+    private static char[][] toGrid(int[] answers) {
+        char[][] grid = new char[9][9];
+        for (int cell = 0; cell < 81; cell++) {
+            grid[cell / 9][cell % 9] = answers[cell] == 0 ? '.' : (char) ('0' + answers[cell]);
+        }
+        return grid;
+    }
+}
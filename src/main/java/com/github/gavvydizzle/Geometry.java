@@ -0,0 +1,177 @@
+package com.github.gavvydizzle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed index tables for a board of size n x n, where n is the square of the 3x3 grid width.
+ * Cells are indexed in row-major order, so the cell at (row, col) is {@code row*n+col}.
+ * Units are numbered rows first, then columns, then grids, the same as {@link Units}.
+ * <p>
+ * Answers are stored as candidate masks in an int, which holds every supported size.
+ * Answers above 9 are written as letters, so 10 is A and 25 is P.
+ */
+public final class Geometry {
+
+    private static final int MIN_BOX_SIZE = 3;
+    private static final int MAX_BOX_SIZE = 5;
+
+    // Each size is built on first use, so a run of 9x9 boards never builds the larger tables
+    private static final class Nine { static final Geometry GEOMETRY = new Geometry(3); }
+    private static final class Sixteen { static final Geometry GEOMETRY = new Geometry(4); }
+    private static final class TwentyFive { static final Geometry GEOMETRY = new Geometry(5); }
+
+    /**
+     * The width of a row/col/grid and the largest answer
+     */
+    public final int size;
+
+    /**
+     * The width of a grid
+     */
+    public final int boxSize;
+
+    /**
+     * The number of cells on the board
+     */
+    public final int cells;
+
+    /**
+     * A candidate mask containing every answer
+     */
+    public final int all;
+
+    /**
+     * The cells of every row [0,n), column [n,2n) and grid [2n,3n)
+     */
+    public final int[][] units;
+
+    /**
+     * The row, column and grid unit that every cell belongs to
+     */
+    public final int[][] cellUnits;
+
+    /**
+     * The units of every cell below 64 as a mask with one bit per unit
+     */
+    public final long[] unitMask;
+
+    /**
+     * The units of every cell from 64 up as a mask with one bit per unit minus 64.
+     * Only 25x25 boards have this many units, so this is null for smaller boards.
+     */
+    public final long[] unitMaskHigh;
+
+    /**
+     * Every unit below 64 and every unit from 64 up, in the layout of {@link #unitMask} and {@link #unitMaskHigh}
+     */
+    public final long allUnits;
+    public final long allUnitsHigh;
+
+    /**
+     * The other cells that share a row, column or grid with every cell
+     */
+    public final int[][] peers;
+
+    /**
+     * A random key for every answer of every cell at {@code cell*size + answer-1}.
+     * The XOR of the keys of the solved positions identifies the positions and answers of a board, see {@link TranspositionTable}
+     */
+    public final long[] zobrist;
+
+    private Geometry(int boxSize) {
+        this.boxSize = boxSize;
+        size = boxSize * boxSize;
+        cells = size * size;
+        all = (1 << size) - 1;
+
+        units = new int[3 * size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                units[i][j] = i*size+j;
+                units[size+i][j] = j*size+i;
+                units[2*size+i][j] = ((i/boxSize)*boxSize + j/boxSize)*size + (i%boxSize)*boxSize + j%boxSize;
+            }
+        }
+
+        cellUnits = new int[cells][3];
+        unitMask = new long[cells];
+        unitMaskHigh = units.length > 64 ? new long[cells] : null;
+        for (int u = 0; u < units.length; u++) {
+            for (int cell : units[u]) {
+                cellUnits[cell][u / size] = u;
+                if (u < 64) unitMask[cell] |= 1L << u;
+                else unitMaskHigh[cell] |= 1L << (u - 64);
+            }
+        }
+        allUnits = units.length >= 64 ? -1L : (1L << units.length) - 1;
+        allUnitsHigh = units.length <= 64 ? 0 : (1L << (units.length - 64)) - 1;
+
+        int numPeers = 3 * (size - 1) - 2 * (boxSize - 1);
+        peers = new int[cells][numPeers];
+        for (int cell = 0; cell < cells; cell++) {
+            boolean[] isPeer = new boolean[cells];
+            for (int u : cellUnits[cell]) {
+                for (int other : units[u]) {
+                    isPeer[other] = other != cell;
+                }
+            }
+
+            int n = 0;
+            for (int other = 0; other < cells; other++) {
+                if (isPeer[other]) peers[cell][n++] = other;
+            }
+        }
+
+        // A fixed seed, so hashes are the same on every run
+        SplittableRandom random = new SplittableRandom(boxSize);
+        zobrist = new long[cells * size];
+        for (int i = 0; i < zobrist.length; i++) {
+            zobrist[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @param size The width of the board
+     * @return The tables for the board size
+     * @throws IllegalArgumentException If the size is not 9, 16 or 25
+     */
+    public static Geometry of(int size) {
+        return switch (size) {
+            case 9 -> Nine.GEOMETRY;
+            case 16 -> Sixteen.GEOMETRY;
+            case 25 -> TwentyFive.GEOMETRY;
+            default -> throw new IllegalArgumentException("Unsupported board size: " + size + "x" + size);
+        };
+    }
+
+    /**
+     * @return If boards of this width can be solved
+     */
+    public static boolean isSupported(int size) {
+        for (int box = MIN_BOX_SIZE; box <= MAX_BOX_SIZE; box++) {
+            if (box * box == size) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param c A character from a board
+     * @return The answer, 0 for an unknown position (a period or 0), or -1 if the character is not part of a board
+     */
+    public static int toAnswer(int c) {
+        if (c == '.' || c == '0') return 0;
+        if (c >= '1' && c <= '9') return c - '0';
+        if (c >= 'A' && c <= 'Z') return c - 'A' + 10;
+        if (c >= 'a' && c <= 'z') return c - 'a' + 10;
+        return -1;
+    }
+
+    /**
+     * @param answer An answer, or 0 for an unknown position
+     * @return The character of the answer, a period when unknown
+     */
+    public static char toChar(int answer) {
+        if (answer == 0) return '.';
+        return answer <= 9 ? (char) ('0' + answer) : (char) ('A' + answer - 10);
+    }
+}
@@ -0,0 +1,89 @@
+package com.github.gavvydizzle;
+
+/**
+ * Finds n numbers that can only go in the same n positions of a row/col/grid.
+ * Those positions must hold these numbers, so every other possible answer is removed from them.
+ */
+public class HiddenSubset implements Strategy {
+
+    private final int size;
+
+    /**
+     * @param size The number of numbers in the subset, 2 for pairs and 3 for triples
+     */
+    public HiddenSubset(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public String getName() {
+        return size == 2 ? "hiddenpair" : "hiddentriple";
+    }
+
+    @Override
+    public boolean apply(Board board) {
+        Geometry geometry = board.getGeometry();
+        int n = geometry.size;
+        boolean changed = false;
+        // The positions in the unit where each number is possible, one bit per index of the unit
+        int[] places = new int[n];
+        int[] digits = new int[n];
+
+        for (int[] unit : geometry.units) {
+            int open = 0;
+            for (int i = 0; i < n; i++) {
+                places[i] = 0;
+            }
+            for (int i = 0; i < n; i++) {
+                int mask = board.getCandidates(unit[i]);
+                if (mask != 0) open++;
+                for (int m = mask; m != 0; m &= m - 1) {
+                    places[Integer.numberOfTrailingZeros(m)] |= 1 << i;
+                }
+            }
+            if (open <= size) continue;
+
+            // Only numbers that are possible in few enough positions can be part of a subset
+            int numDigits = 0;
+            for (int d = 0; d < n; d++) {
+                int count = Integer.bitCount(places[d]);
+                if (count > 0 && count <= size) digits[numDigits++] = d;
+            }
+            if (numDigits < size) continue;
+
+            changed |= search(board, unit, places, digits, numDigits, 0, 0, 0, 0);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+
+    private boolean search(Board board, int[] unit, int[] places, int[] digits, int n, int start, int depth, int union, int numbers) {
+        if (depth == size) {
+            if (Integer.bitCount(union) != size) return false;
+            return keepOnly(board, unit, union, numbers);
+        }
+
+        boolean changed = false;
+        for (int i = start; i < n; i++) {
+            int next = union | places[digits[i]];
+            if (Integer.bitCount(next) > size) continue;
+
+            changed |= search(board, unit, places, digits, n, i + 1, depth + 1, next, numbers | (1 << digits[i]));
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+
+    private static boolean keepOnly(Board board, int[] unit, int union, int numbers) {
+        boolean changed = false;
+        for (int m = union; m != 0; m &= m - 1) {
+            int cell = unit[Integer.numberOfTrailingZeros(m)];
+            // Removals from an earlier subset may have already solved this position
+            if (board.getCandidates(cell) == 0) continue;
+
+            changed |= board.eliminate(cell, board.getGeometry().all & ~numbers);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+}
@@ -1,21 +1,108 @@
 package com.github.gavvydizzle;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 public class Main {
 
-    private static final List<String> algorithmList = List.of("dfs", "mrv", "lcv");
-    private static int numBoards = 0;
-    private static int solvedBoards = 0;
+    private static final List<String> algorithmList = List.of("dfs", "mrv", "lcv", "flcv", "trail", "dlx", "pmrv", "portfolio", "rmrv");
+    private static final Map<String, String> algorithmLabels = algorithmList.stream()
+            .collect(Collectors.toMap(a -> a, String::toUpperCase));
+    // Algorithms that are specialized to 9x9 boards
+    private static final Set<String> nineByNineOnly = Set.of("trail", "dlx");
+    // Races every other algorithm on its own thread
+    private static final String PORTFOLIO = "portfolio";
+    // MRV with randomized restarts
+    private static final String RESTARTS = "rmrv";
+    // Algorithms left out of the portfolio, since pmrv already uses every core
+    private static final Set<String> notInPortfolio = Set.of("pmrv", PORTFOLIO);
+    // The number of boards each algorithm solved first in the portfolio
+    private static final Map<String, AtomicInteger> portfolioWins = algorithmList.stream()
+            .collect(Collectors.toMap(a -> a, a -> new AtomicInteger()));
+    // Counts solutions up to a limit instead of searching for one
+    private static final String COUNT_MODE = "count";
+    // The port of the solver server when none is given
+    private static final int DEFAULT_PORT = 4949;
+    private static final AtomicInteger numBoards = new AtomicInteger();
+    private static final AtomicInteger solvedBoards = new AtomicInteger();
+
+    // Write each board as a single line of characters instead of the full report
+    private static boolean lineFormat = false;
+    // The number of solutions at which counting stops
+    private static int solutionLimit = 2;
+    // Inference run after singles, or null when only singles are used
+    private static StrategyPipeline strategies = null;
+    // Write the metrics of every board next to output.txt as "csv" or "json" lines, or null to skip them
+    private static String metricsFormat = null;
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    // The time and node budget of each board, 0 for no limit
+    private static long timeoutMillis = 0;
+    private static long maxNodes = 0;
+    // Boards that ran out of budget are solved again with this algorithm at the end, or null to leave them
+    private static String requeueAlgorithm = null;
+    // Solutions of solved puzzles by canonical form, or null to always search
+    private static SolutionCache cache = null;
+    // Runs the row/col/grid checks of every board
+    private static UnitKernel kernel = UnitKernel.SCALAR;
+    // The memory of each solving thread's table of failed states, 0 to search every state
+    private static long tableBytes = 0;
+    // Algorithms that can skip failed states
+    private static final Set<String> tableAlgorithms = Set.of("dfs", "mrv", "rmrv");
+    private static final ThreadLocal<TranspositionTable> tables = ThreadLocal.withInitial(() -> new TranspositionTable(tableBytes));
+    private static final AtomicLong tableHits = new AtomicLong();
+    private static final AtomicLong tableMisses = new AtomicLong();
+    private static final AtomicLong tableStores = new AtomicLong();
+    private static final AtomicLong tableReplacements = new AtomicLong();
+    // The node limits of rmrv's runs and the seed of its random choices
+    private static String restartSchedule = "luby";
+    private static long restartBase = 100;
+    private static long seed = 0;
+    private static final AtomicLong totalRestarts = new AtomicLong();
+    private static final AtomicInteger restartedBoards = new AtomicInteger();
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("generate")) {
+            generate(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("pack")) {
+            pack(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args);
+            return;
+        }
+        if (args.length > 0 && args[0].equals("client")) {
+            client(args);
+            return;
+        }
         if (args.length == 0) {
             System.err.println("Missing arguments: input_file and algorithm");
             return;
@@ -24,35 +111,179 @@ public class Main {
             System.err.println("Missing argument: algorithm");
             return;
         }
-        else if (!args[0].endsWith(".txt")) {
-            System.err.println("Only .txt files are accepted");
+        else if (!isBoardFile(args[0])) {
+            System.err.println("Only .txt, .txt.gz and " + PackedCorpus.EXTENSION + " files are accepted");
             return;
         }
 
-        Scanner sc;
-        try {
-            sc = new Scanner(new File(args[0]));
-        } catch (FileNotFoundException e) {
+        Path inputFile = Path.of(args[0]);
+        if (!Files.isRegularFile(inputFile)) {
             System.err.println("No file exists with the name: " + args[0]);
             return;
         }
 
         String alg = args[1].toLowerCase();
 
+        int threads = 1;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    System.err.println("Invalid thread count: " + args[i]);
+                    return;
+                }
+            }
+            else if (args[i].equals("--limit") && i + 1 < args.length) {
+                try {
+                    solutionLimit = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    solutionLimit = 0;
+                }
+                if (solutionLimit < 1) {
+                    System.err.println("Invalid solution limit: " + args[i]);
+                    return;
+                }
+            }
+            else if (args[i].equals("--format") && i + 1 < args.length) {
+                String format = args[++i];
+                if (!format.equals("grid") && !format.equals("line")) {
+                    System.err.println("Invalid format: " + format);
+                    System.err.println("Allowed formats: [grid, line]");
+                    return;
+                }
+                lineFormat = format.equals("line");
+            }
+            else if (args[i].equals("--strategies") && i + 1 < args.length) {
+                try {
+                    strategies = StrategyPipeline.parse(args[++i]);
+                } catch (IllegalArgumentException e) {
+                    System.err.println(e.getMessage());
+                    System.err.println("Allowed strategies: " + StrategyPipeline.getNames());
+                    return;
+                }
+            }
+            else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsFormat = args[++i];
+                if (!metricsFormat.equals("csv") && !metricsFormat.equals("json")) {
+                    System.err.println("Invalid metrics format: " + metricsFormat);
+                    System.err.println("Allowed formats: [csv, json]");
+                    return;
+                }
+            }
+            else if (args[i].equals("--timeout") && i + 1 < args.length) {
+                try {
+                    timeoutMillis = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    timeoutMillis = 0;
+                }
+                if (timeoutMillis < 1) {
+                    System.err.println("Invalid timeout: " + args[i]);
+                    return;
+                }
+            }
+            else if (args[i].equals("--max-nodes") && i + 1 < args.length) {
+                try {
+                    maxNodes = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    maxNodes = 0;
+                }
+                if (maxNodes < 1) {
+                    System.err.println("Invalid node limit: " + args[i]);
+                    return;
+                }
+            }
+            else if (args[i].equals("--requeue") && i + 1 < args.length) {
+                requeueAlgorithm = args[++i].toLowerCase();
+                if (!algorithmList.contains(requeueAlgorithm)) {
+                    System.err.println("Invalid requeue algorithm: " + args[i]);
+                    System.err.println("Allowed types: " + algorithmList);
+                    return;
+                }
+            }
+            else if (args[i].equals("--cache") && i + 1 < args.length) {
+                int capacity;
+                try {
+                    capacity = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    capacity = 0;
+                }
+                if (capacity < 1) {
+                    System.err.println("Invalid cache size: " + args[i]);
+                    return;
+                }
+                cache = new SolutionCache(capacity);
+            }
+            else if (args[i].equals("--table") && i + 1 < args.length) {
+                long megabytes;
+                try {
+                    megabytes = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    megabytes = 0;
+                }
+                if (megabytes < 1) {
+                    System.err.println("Invalid table size: " + args[i]);
+                    return;
+                }
+                tableBytes = megabytes << 20;
+            }
+            else if (args[i].equals("--restarts") && i + 1 < args.length) {
+                restartSchedule = args[++i].toLowerCase();
+                if (RestartSchedule.of(restartSchedule, restartBase) == null) {
+                    System.err.println("Invalid restart schedule: " + args[i]);
+                    System.err.println("Allowed schedules: " + Arrays.toString(RestartSchedule.NAMES));
+                    return;
+                }
+            }
+            else if (args[i].equals("--restart-base") && i + 1 < args.length) {
+                try {
+                    restartBase = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    restartBase = 0;
+                }
+                if (restartBase < 1) {
+                    System.err.println("Invalid restart base: " + args[i]);
+                    return;
+                }
+            }
+            else if (args[i].equals("--seed") && i + 1 < args.length) {
+                try {
+                    seed = Long.parseLong(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid seed: " + args[i]);
+                    return;
+                }
+            }
+            else if (args[i].equals("--kernel") && i + 1 < args.length) {
+                kernel = parseKernel(args[++i]);
+                if (kernel == null) return;
+            }
+            else {
+                System.err.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
         // Special argument to run all algorithm types and print to CSV
         if (alg.equals("__csv")) {
-            try {
-                FileWriter fileWriter = new FileWriter("output.txt");
-                fileWriter.write("board, dfs(ms), mrv(ms), lcv(ms)\n");
-
-                do {
-                    outputData(sc, fileWriter);
-                    if (sc.hasNext()) sc.nextLine();
-                } while (sc.hasNext());
-
-                fileWriter.close();
-                sc.close();
+            try (BoardFile reader = BoardFile.open(inputFile);
+                 OutputStream metricsOut = openMetrics();
+                 FileWriter fileWriter = new FileWriter("output.txt")) {
+                fileWriter.write("board");
+                for (String a : algorithmList) {
+                    fileWriter.write(", " + a + "(ms)");
+                }
+                fileWriter.write("\n");
 
+                BoardWriter metricsWriter = new BoardWriter();
+                BoardInput input;
+                while ((input = reader.next()) != null) {
+                    outputData(input, fileWriter, metricsWriter);
+                    metricsWriter.writeTo(metricsOut);
+                }
                 return;
             } catch (Exception e) {
                 e.printStackTrace();
@@ -60,117 +291,839 @@ public class Main {
             }
         }
 
-        if (!algorithmList.contains(alg)) {
+        if (!algorithmList.contains(alg) && !alg.equals(COUNT_MODE)) {
             System.err.println("Invalid algorithm: " + args[1]);
-            System.err.println("Allowed types: " + algorithmList);
+            System.err.println("Allowed types: " + algorithmList + " or " + COUNT_MODE);
             return;
         }
 
-        // Run with an algorithm
-        try {
-            FileWriter fileWriter = new FileWriter("output.txt");
+        // Run with an algorithm. Boards are solved as they are read
+        try (BoardFile reader = BoardFile.open(inputFile);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of("output.txt")), 1 << 16);
+             OutputStream metricsOut = openMetrics()) {
 
-            do {
-                numBoards++;
-                solveFromInput(sc, alg, fileWriter);
-                if (sc.hasNext()) sc.nextLine();
-            } while (sc.hasNext());
+            BoardSource source = () -> {
+                BoardInput input = reader.next();
+                if (input != null) numBoards.incrementAndGet();
+                return input;
+            };
+            List<BoardInput> timedOut = new ArrayList<>();
+            solveAll(source, alg, out, metricsOut, threads, timedOut);
 
-            fileWriter.close();
+            // Requeued boards were already counted, so only their solutions are added
+            List<BoardInput> timedOutAgain = new ArrayList<>();
+            if (requeueAlgorithm != null && !timedOut.isEmpty()) {
+                Iterator<BoardInput> requeued = timedOut.iterator();
+                solveAll(() -> requeued.hasNext() ? requeued.next() : null, requeueAlgorithm, out, metricsOut, threads, timedOutAgain);
+            }
+
+            out.flush();
+            metricsOut.flush();
 
             System.out.println("Attempted to solve " + numBoards + " board(s)...");
-            if (numBoards == solvedBoards) {
+            if (numBoards.get() == solvedBoards.get()) {
                 System.out.println("Solved all " + solvedBoards + " board(s)!");
             }
             else {
                 System.out.println("Solved " + solvedBoards + " board(s)");
-                System.out.println("Failed to solve " + (numBoards - solvedBoards) + " board(s)");
+                System.out.println("Failed to solve " + (numBoards.get() - solvedBoards.get()) + " board(s)");
+            }
+            if (!timedOut.isEmpty()) {
+                System.out.println("Ran out of budget on " + timedOut.size() + " board(s)");
+                if (requeueAlgorithm != null) {
+                    System.out.println("Requeued them to " + algorithmLabels.get(requeueAlgorithm)
+                            + ", which ran out of budget on " + timedOutAgain.size() + " board(s)");
+                }
+            }
+
+            if (alg.equals(PORTFOLIO) || PORTFOLIO.equals(requeueAlgorithm)) {
+                System.out.println("Portfolio wins: " + algorithmList.stream()
+                        .filter(a -> portfolioWins.get(a).get() > 0)
+                        .map(a -> algorithmLabels.get(a) + "=" + portfolioWins.get(a))
+                        .collect(Collectors.joining(" ")));
+            }
+
+            if (restartedBoards.get() > 0) {
+                System.out.println("Restarted " + totalRestarts + " time(s) on " + restartedBoards + " board(s)");
+            }
+
+            if (tableBytes > 0) {
+                System.out.println("Transposition table: " + tableHits + " hit(s), " + tableMisses + " miss(es), "
+                        + tableStores + " store(s), " + tableReplacements + " replacement(s), "
+                        + (tableBytes >> 20) + "MB per thread");
+            }
+
+            if (cache != null) {
+                System.out.println("Cache: " + cache.getHits() + " hit(s), " + cache.getMisses() + " miss(es), "
+                        + cache.getEvictions() + " eviction(s), " + cache.size() + "/" + cache.getCapacity() + " entries");
+            }
+
+            if (strategies != null) {
+                BoardWriter stats = new BoardWriter();
+                strategies.writeStats(stats);
+                stats.writeTo(System.out);
+                System.out.flush();
             }
 
         } catch (Exception e) {
             e.printStackTrace();
         }
+    }
+
+    /**
+     * Solves every board from the source and writes the results in input order
+     * @param timedOut Receives the unsolved boards that ran out of budget, in input order
+     */
+    private static void solveAll(BoardSource source, String algorithm, OutputStream out, OutputStream metricsOut, int threads,
+                                 List<BoardInput> timedOut) throws IOException, InterruptedException {
+        if (threads > 1) {
+            solveInParallel(source, algorithm, out, metricsOut, threads, timedOut);
+            return;
+        }
 
-        sc.close();
+        BoardWriter writer = new BoardWriter();
+        BoardWriter metricsWriter = new BoardWriter();
+        BoardInput input;
+        while ((input = source.next()) != null) {
+            SolveMetrics metrics = solveFromInput(input, algorithm, writer);
+            writer.writeTo(out);
+            writeMetrics(metrics, metricsWriter, metricsOut);
+            if (isTimedOut(metrics)) timedOut.add(input);
+        }
     }
 
-    public static void solveFromInput(Scanner sc, String algorithm, FileWriter fileWriter) throws IOException {
-        String name = sc.nextLine();
-        char[][] input = new char[9][9];
+    /**
+     * @return If a board was left unsolved because it ran out of budget
+     */
+    private static boolean isTimedOut(SolveMetrics metrics) {
+        return metrics != null && metrics.timedOut() && !metrics.solved();
+    }
 
-        for (int i = 0; i < 9; i++) {
-            char[] arr = sc.nextLine().toCharArray();
-            input[i] = arr;
+    /**
+     * Solves boards from the input on a pool of threads.
+     * Results are written in the same order as the input. At most a few boards per thread
+     * are read ahead so memory stays bounded for large files.
+     * Each board is formatted into a writer taken from a fixed pool, which is returned once its bytes are written.
+     *
+     * @param source The input
+     * @param algorithm The algorithm
+     * @param out The output file
+     * @param metricsOut The metrics file
+     * @param threads The number of threads to solve with
+     * @param timedOut Receives the unsolved boards that ran out of budget, in input order
+     */
+    private static void solveInParallel(BoardSource source, String algorithm, OutputStream out, OutputStream metricsOut, int threads,
+                                        List<BoardInput> timedOut) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Queue<Future<Result>> pending = new ArrayDeque<>();
+        BoardWriter metricsWriter = new BoardWriter();
+        int window = threads * 4;
+
+        BlockingQueue<BoardWriter> writers = new ArrayBlockingQueue<>(window);
+        for (int i = 0; i < window; i++) {
+            writers.add(new BoardWriter());
         }
 
-        fileWriter.write("Board: " + name + "\n");
-        Board board = new Board(input);
+        try {
+            BoardInput next;
+            while ((next = source.next()) != null) {
+                BoardInput input = next;
+                pending.add(executor.submit(() -> {
+                    BoardWriter writer = writers.take();
+                    SolveMetrics metrics = solveFromInput(input, algorithm, writer);
+                    return new Result(input, writer, metrics);
+                }));
 
-        long preSolveTime = System.currentTimeMillis();
-        board.simplify();
+                if (pending.size() >= window) {
+                    writeResult(pending.poll(), out, metricsOut, metricsWriter, writers, timedOut);
+                }
+            }
 
-        switch (algorithm) {
-            case "dfs" -> board.solveDFS();
-            case "mrv" -> board.solveMRV();
-            case "lcv" -> board.solveLCV();
+            while (!pending.isEmpty()) {
+                writeResult(pending.poll(), out, metricsOut, metricsWriter, writers, timedOut);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * The board, formatted output and metrics of a board solved on the pool
+     */
+    private record Result(BoardInput input, BoardWriter writer, SolveMetrics metrics) {}
+
+    private static void writeResult(Future<Result> future, OutputStream out, OutputStream metricsOut, BoardWriter metricsWriter,
+                                    BlockingQueue<BoardWriter> writers, List<BoardInput> timedOut) throws IOException, InterruptedException {
+        Result result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to solve a board", e.getCause());
+        }
+        result.writer().writeTo(out);
+        writers.add(result.writer());
+        writeMetrics(result.metrics(), metricsWriter, metricsOut);
+        if (isTimedOut(result.metrics())) timedOut.add(result.input());
+    }
+
+    /**
+     * @return The metrics file for the selected format, or a stream that discards everything when metrics are off
+     */
+    private static OutputStream openMetrics() throws IOException {
+        if (metricsFormat == null) return OutputStream.nullOutputStream();
+
+        Path path = Path.of(metricsFormat.equals("json") ? "metrics.jsonl" : "metrics.csv");
+        OutputStream metricsOut = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+        if (metricsFormat.equals("csv")) {
+            BoardWriter header = new BoardWriter();
+            SolveMetrics.writeCsvHeader(header);
+            header.writeTo(metricsOut);
         }
+        return metricsOut;
+    }
 
-        long postSolveTime = System.currentTimeMillis();
+    private static void writeMetrics(SolveMetrics metrics, BoardWriter writer, OutputStream metricsOut) throws IOException {
+        if (metrics == null || metricsFormat == null) return;
 
-        if (board.solved()) {
-            fileWriter.write(algorithm.toUpperCase() + ": Iterations=" + board.getCount() + " Depth=" + board.getSolveDepth() + "\n");
+        formatMetrics(metrics, writer);
+        writer.writeTo(metricsOut);
+    }
+
+    private static void formatMetrics(SolveMetrics metrics, BoardWriter writer) {
+        if (metricsFormat.equals("json")) {
+            metrics.writeJson(writer);
         }
         else {
+            metrics.writeCsv(writer);
+        }
+    }
 
-            fileWriter.write(algorithm.toUpperCase() + ": Iterations=" + board.getCount() + "\n");
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 when the JVM cannot measure them
+     */
+    private static long allocatedBytes() {
+        if (threadBean instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the metrics of a solved or counted board
+     * @param allocatedBefore The result of {@link #allocatedBytes()} before the board was simplified, or -1 when metrics are off
+     */
+    private static SolveMetrics collectMetrics(BoardInput input, String algorithm, Board board, boolean solved, int solutions,
+                                               long simplifyNanos, long searchNanos, long allocatedBefore) {
+        long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+        return new SolveMetrics(input.name(), algorithm, board.getSize(), solved, board.isTimedOut(), solutions, board.getCount(),
+                board.getStats(), board.getPropagations(), board.getUnitChecks(), solved ? board.getSolveDepth() : 0,
+                simplifyNanos, searchNanos, allocated);
+    }
+
+    /**
+     * Solves a board and formats the result
+     * @return The metrics of the board, or null when the algorithm does not support the board
+     */
+    public static SolveMetrics solveFromInput(BoardInput boardInput, String algorithm, BoardWriter writer) {
+        if (algorithm.equals(COUNT_MODE)) {
+            return countFromInput(boardInput, writer);
         }
-        fileWriter.write("Computation Time: " + (postSolveTime-preSolveTime) + "ms\n");
 
-        if (board.isSolved()) {
-            solvedBoards++;
-            fileWriter.write("===(SOLVED)===\n");
-            board.outputAnswers(fileWriter);
+        Board board = new Board(boardInput.grid());
+        board.setStrategies(strategies);
+        board.setKernel(kernel);
+        if (tableBytes > 0 && tableAlgorithms.contains(algorithm)) {
+            board.setTable(tables.get());
+        }
+
+        if (!supports(algorithm, board.getSize())) {
+            if (lineFormat) {
+                writer.writeLine(board);
+                return null;
+            }
+            writer.write("Board: ").write(boardInput.name()).newLine();
+            writer.write(algorithmLabels.get(algorithm)).write(": Only 9x9 boards are supported, this board is ")
+                    .write(board.getSize()).write('x').write(board.getSize()).newLine();
+            writer.write("---------------------------").newLine();
+            return null;
+        }
+
+        long allocatedBefore = metricsFormat != null ? allocatedBytes() : -1;
+        board.setBudget(newBudget());
+        long preSolveTime = System.nanoTime();
+
+        // Puzzles that are the same up to symmetry share a cached solution, which is mapped back without searching
+        CanonicalForm form = cache != null ? CanonicalForm.of(board) : null;
+        int[] cached = form != null ? cache.get(form) : null;
+        long simplifiedTime;
+        String winner = null;
+        if (cached != null) {
+            board.setSolution(cached);
+            simplifiedTime = System.nanoTime();
         }
         else {
-            fileWriter.write("===(UNSOLVED)===\n");
-            board.outputPossibilities(fileWriter);
+            board.simplify();
+            simplifiedTime = System.nanoTime();
+            winner = solve(board, algorithm);
         }
 
-        fileWriter.write("---------------------------\n");
+        long postSolveTime = System.nanoTime();
+
+        boolean isSolved = board.isSolved();
+        boolean timedOut = !isSolved && board.isTimedOut();
+        if (isSolved && form != null && cached == null) {
+            cache.put(form, board.getAnswers());
+        }
+        if (isSolved) {
+            solvedBoards.incrementAndGet();
+        }
+        if (board.getRestarts() > 0) {
+            totalRestarts.addAndGet(board.getRestarts());
+            restartedBoards.incrementAndGet();
+        }
+        TranspositionTable table = cached == null ? board.getTable() : null;
+        if (table != null) {
+            tableHits.addAndGet(table.getHits());
+            tableMisses.addAndGet(table.getMisses());
+            tableStores.addAndGet(table.getStores());
+            tableReplacements.addAndGet(table.getReplacements());
+        }
+        if (algorithm.equals(PORTFOLIO) && winner != null) {
+            portfolioWins.get(winner).incrementAndGet();
+        }
+        // The portfolio is recorded with the engine that won, such as portfolio:mrv
+        String engine = algorithm.equals(PORTFOLIO) && winner != null ? algorithm + ":" + winner : algorithm;
+        SolveMetrics metrics = collectMetrics(boardInput, engine, board, isSolved, isSolved ? 1 : 0,
+                simplifiedTime - preSolveTime, postSolveTime - simplifiedTime, allocatedBefore);
+
+        // Anything after the cells is ignored when the output is read back
+        if (lineFormat) {
+            if (timedOut) {
+                writer.writeCells(board);
+                writer.write(" TIMEOUT").newLine();
+            }
+            else {
+                writer.writeLine(board);
+            }
+            return metrics;
+        }
+
+        writer.write("Board: ").write(boardInput.name()).newLine();
+        writer.write(algorithmLabels.get(algorithm)).write(": Iterations=").write(board.getCount());
+        if (board.solved()) {
+            writer.write(" Depth=").write(board.getSolveDepth());
+        }
+        writer.write(" Propagations=").write(board.getPropagations())
+                .write(" UnitChecks=").write(board.getUnitChecks());
+        if (algorithm.equals(PORTFOLIO) && winner != null) {
+            writer.write(" Winner=").write(algorithmLabels.get(winner));
+        }
+        if (cached == null && (algorithm.equals(RESTARTS) || RESTARTS.equals(winner))) {
+            writer.write(" Restarts=").write(board.getRestarts());
+        }
+        if (table != null) {
+            writer.write(" TableHits=").write(table.getHits()).write(" TableMisses=").write(table.getMisses());
+        }
+        if (cached != null) {
+            writer.write(" Cached");
+        }
+        writer.newLine();
+        writer.write("Computation Time: ").write((postSolveTime - preSolveTime) / 1_000_000).write("ms").newLine();
+
+        if (isSolved) {
+            writer.write("===(SOLVED)===").newLine();
+            writer.writeAnswers(board);
+        }
+        else if (timedOut) {
+            // The candidates left by the initial simplification, since the search works on copies of the board
+            writer.write("===(TIMEOUT)===").newLine();
+            writer.writePossibilities(board);
+        }
+        else {
+            writer.write("===(UNSOLVED)===").newLine();
+            writer.writePossibilities(board);
+        }
+
+        writer.write("---------------------------").newLine();
+        return metrics;
     }
 
-    public static void outputData(Scanner sc, FileWriter fileWriter) throws IOException {
-        String name = sc.nextLine();
-        char[][] input = new char[9][9];
+    /**
+     * @return A budget for one board from the time and node limits, started now
+     */
+    private static Budget newBudget() {
+        if (timeoutMillis == 0 && maxNodes == 0) return Budget.UNLIMITED;
+        return new Budget(timeoutMillis, maxNodes);
+    }
 
-        for (int i = 0; i < 9; i++) {
-            char[] arr = sc.nextLine().toCharArray();
-            input[i] = arr;
+    /**
+     * Generates boards with a unique solution and writes them in the input file format.
+     * Usage: {@code generate count [--clues N] [--max-nodes N] [--seed S] [--threads T] [--output file]}
+     *
+     * @param args The command line arguments, starting with "generate"
+     */
+    private static void generate(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Missing argument: number of boards to generate");
+            return;
         }
 
+        int boards;
+        int clues = 0;
+        long maxNodes = 0;
+        long seed = System.nanoTime();
+        int threads = 1;
+        String output = "generated.txt";
+        try {
+            boards = Integer.parseInt(args[1]);
+            for (int i = 2; i < args.length; i++) {
+                if (i + 1 >= args.length) {
+                    System.err.println("Missing value for option: " + args[i]);
+                    return;
+                }
+                switch (args[i]) {
+                    case "--clues" -> clues = Integer.parseInt(args[++i]);
+                    case "--max-nodes" -> maxNodes = Long.parseLong(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--output" -> output = args[++i];
+                    default -> {
+                        System.err.println("Unknown option: " + args[i]);
+                        return;
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            return;
+        }
+        if (boards < 1 || clues < 0 || maxNodes < 0 || threads < 1) {
+            System.err.println("Board count and threads must be positive, clues and max nodes must not be negative");
+            return;
+        }
+
+        Generator generator = new Generator(seed, clues, maxNodes);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Queue<Future<BoardInput>> pending = new ArrayDeque<>();
+        int window = threads * 4;
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(output)), 1 << 16)) {
+            BoardWriter writer = new BoardWriter();
+            int submitted = 0;
+
+            // Results are written in index order, so the file only depends on the seed
+            while (submitted < boards || !pending.isEmpty()) {
+                while (submitted < boards && pending.size() < window) {
+                    int index = submitted++;
+                    pending.add(executor.submit(() -> generator.generate(index)));
+                }
+
+                writer.writeInput(pending.poll().get());
+                writer.writeTo(out);
+            }
+
+            System.out.println("Generated " + boards + " board(s) with seed " + seed + " in " + output);
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return If the file name has the extension of a text or packed board file
+     */
+    private static boolean isBoardFile(String name) {
+        return name.endsWith(".txt") || name.endsWith(".txt.gz") || name.endsWith(PackedCorpus.EXTENSION);
+    }
+
+    /**
+     * Converts a text board file to the packed format of {@link PackedCorpus}. Every board must have the same width.
+     * Usage: {@code pack input_file [--output file] [--no-names]}
+     *
+     * @param args The command line arguments, starting with "pack"
+     */
+    private static void pack(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Missing argument: input_file");
+            return;
+        }
+        if (!args[1].endsWith(".txt") && !args[1].endsWith(".txt.gz")) {
+            System.err.println("Only .txt and .txt.gz files can be packed");
+            return;
+        }
+        Path inputFile = Path.of(args[1]);
+        if (!Files.isRegularFile(inputFile)) {
+            System.err.println("No file exists with the name: " + args[1]);
+            return;
+        }
+
+        String output = args[1].substring(0, args[1].lastIndexOf(".txt")) + PackedCorpus.EXTENSION;
+        boolean names = true;
+        for (int i = 2; i < args.length; i++) {
+            if (args[i].equals("--output") && i + 1 < args.length) {
+                output = args[++i];
+            }
+            else if (args[i].equals("--no-names")) {
+                names = false;
+            }
+            else {
+                System.err.println("Unknown option: " + args[i]);
+                return;
+            }
+        }
+
+        long start = System.nanoTime();
+        try (BoardReader reader = new BoardReader(inputFile)) {
+            BoardInput input = reader.next();
+            if (input == null) {
+                System.err.println("No boards in " + args[1]);
+                return;
+            }
+
+            long count;
+            try (PackedWriter writer = new PackedWriter(Path.of(output), input.grid().length, names)) {
+                do {
+                    writer.write(input);
+                } while ((input = reader.next()) != null);
+                count = writer.getCount();
+            }
+
+            System.out.println("Packed " + count + " board(s) into " + output + " (" + Files.size(Path.of(output))
+                    + " bytes) in " + (System.nanoTime() - start) / 1_000_000 + "ms");
+        } catch (IOException e) {
+            System.err.println("Failed to pack " + args[1] + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(Path.of(output));
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Runs a resident solver that answers boards over a loopback socket, or over stdin and stdout.
+     * Usage: {@code serve [--port P | --stdio] [--algorithm A] [--threads T] [--warmup N] [--strategies a,b] [--cache N]
+     * [--timeout MS] [--max-nodes N]}
+     *
+     * @param args The command line arguments, starting with "serve"
+     * @see SolverServer
+     */
+    private static void serve(String[] args) {
+        int port = DEFAULT_PORT;
+        boolean stdio = false;
+        String algorithm = "mrv";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int warmup = 100;
+        StrategyPipeline serverStrategies = null;
+        SolutionCache serverCache = null;
+        long timeout = 0;
+        long nodes = 0;
+        UnitKernel serverKernel = UnitKernel.SCALAR;
+        try {
+            for (int i = 1; i < args.length; i++) {
+                if (args[i].equals("--stdio")) {
+                    stdio = true;
+                    continue;
+                }
+                if (i + 1 >= args.length) {
+                    System.err.println("Missing value for option: " + args[i]);
+                    return;
+                }
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(args[++i]);
+                    case "--algorithm" -> algorithm = args[++i].toLowerCase();
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                    case "--strategies" -> serverStrategies = StrategyPipeline.parse(args[++i]);
+                    case "--cache" -> serverCache = new SolutionCache(Integer.parseInt(args[++i]));
+                    case "--timeout" -> timeout = Long.parseLong(args[++i]);
+                    case "--max-nodes" -> nodes = Long.parseLong(args[++i]);
+                    case "--kernel" -> {
+                        serverKernel = parseKernel(args[++i]);
+                        if (serverKernel == null) return;
+                    }
+                    default -> {
+                        System.err.println("Unknown option: " + args[i]);
+                        return;
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid number: " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Allowed strategies: " + StrategyPipeline.getNames());
+            return;
+        }
+        if (!algorithmList.contains(algorithm)) {
+            System.err.println("Invalid algorithm: " + algorithm);
+            System.err.println("Allowed types: " + algorithmList);
+            return;
+        }
+        if (port < 0 || threads < 1 || warmup < 0 || timeout < 0 || nodes < 0 || (serverCache != null && serverCache.getCapacity() < 1)) {
+            System.err.println("Threads and cache size must be positive, the port, warm-up, timeout and max nodes must not be negative");
+            return;
+        }
+
+        SolverServer server = new SolverServer(algorithm, threads, serverStrategies, serverKernel, serverCache, timeout, nodes);
+        try {
+            // Stdout carries the responses in stdio mode, so status messages go to stderr
+            System.err.println("Warming up with " + warmup + " board(s)...");
+            server.warmUp(warmup);
+
+            if (stdio) {
+                System.err.println("Reading boards from stdin");
+                server.serve(System.in, System.out);
+            }
+            else {
+                server.listen(port, p -> System.err.println("Listening on port " + p));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /**
+     * Sends every board of a file to a running server and writes the responses to the output file.
+     * Boards are sent from a second thread while responses are read, so the requests are pipelined.
+     * Usage: {@code client input_file [--port P]}
+     *
+     * @param args The command line arguments, starting with "client"
+     */
+    private static void client(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Missing argument: input_file");
+            return;
+        }
+        int port = DEFAULT_PORT;
+        if (args.length == 4 && args[2].equals("--port")) {
+            try {
+                port = Integer.parseInt(args[3]);
+            } catch (NumberFormatException e) {
+                System.err.println("Invalid port: " + args[3]);
+                return;
+            }
+        }
+        else if (args.length != 2) {
+            System.err.println("Usage: client input_file [--port P]");
+            return;
+        }
+
+        Path inputFile = Path.of(args[1]);
+        long start = System.nanoTime();
+        try (SolverClient client = new SolverClient(port);
+             OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of("output.txt")), 1 << 16)) {
+
+            AtomicInteger sent = new AtomicInteger();
+            Thread sender = new Thread(() -> {
+                try (BoardFile reader = BoardFile.open(inputFile)) {
+                    BoardInput input;
+                    while ((input = reader.next()) != null) {
+                        client.send(input);
+                        sent.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Failed to send boards: " + e.getMessage());
+                } finally {
+                    // Lets the server finish, so the boards already sent still get their responses
+                    try {
+                        client.finish();
+                    } catch (IOException e) {
+                        System.err.println("Failed to send boards: " + e.getMessage());
+                    }
+                }
+            }, "requests");
+            sender.start();
+
+            int received = 0;
+            int solved = 0;
+            String response;
+            while ((response = client.receive()) != null) {
+                received++;
+                if (response.endsWith(" SOLVED")) solved++;
+                out.write(response.getBytes(StandardCharsets.US_ASCII));
+                out.write('\n');
+            }
+            sender.join();
+
+            System.out.println("Sent " + sent + " board(s) and received " + received + " response(s) in "
+                    + (System.nanoTime() - start) / 1_000_000 + "ms");
+            System.out.println("Solved " + solved + " board(s)");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Counts the solutions of a board up to the solution limit.
+     * The board counts as solved when it has at least one solution.
+     */
+    private static SolveMetrics countFromInput(BoardInput boardInput, BoardWriter writer) {
+        Board board = new Board(boardInput.grid());
+        board.setStrategies(strategies);
+        board.setKernel(kernel);
+
+        long allocatedBefore = metricsFormat != null ? allocatedBytes() : -1;
+        board.setBudget(newBudget());
+        long preSolveTime = System.nanoTime();
+        board.simplify();
+        long simplifiedTime = System.nanoTime();
+        int solutions = board.countSolutions(solutionLimit);
+        long postSolveTime = System.nanoTime();
+        // The count is incomplete, unless the limit was reached first
+        boolean timedOut = solutions < solutionLimit && board.isTimedOut();
+
+        if (solutions > 0) {
+            solvedBoards.incrementAndGet();
+        }
+        SolveMetrics metrics = collectMetrics(boardInput, COUNT_MODE, board, solutions > 0, solutions,
+                simplifiedTime - preSolveTime, postSolveTime - simplifiedTime, allocatedBefore);
+
+        // The solution count follows the board on the same line
+        if (lineFormat) {
+            writer.writeCells(board);
+            writer.write(' ').write(solutions);
+            if (solutions >= solutionLimit) {
+                writer.write('+');
+            }
+            else if (timedOut) {
+                writer.write(" TIMEOUT");
+            }
+            writer.newLine();
+            return metrics;
+        }
+
+        writer.write("Board: ").write(boardInput.name()).newLine();
+        writer.write("COUNT: Iterations=").write(board.getCount()).write(" Solutions=").write(solutions);
+        if (solutions >= solutionLimit) {
+            writer.write('+');
+        }
+        writer.write(" Propagations=").write(board.getPropagations())
+                .write(" UnitChecks=").write(board.getUnitChecks()).newLine();
+        writer.write("Computation Time: ").write((postSolveTime - preSolveTime) / 1_000_000).write("ms").newLine();
+
+        if (timedOut) {
+            writer.write("===(TIMEOUT)===").newLine();
+            if (solutions > 0) writer.writeAnswers(board);
+            else writer.writePossibilities(board);
+        }
+        else if (solutions == 0) {
+            writer.write("===(UNSOLVED)===").newLine();
+            writer.writePossibilities(board);
+        }
+        else {
+            writer.write(solutions == 1 ? "===(UNIQUE)===" : "===(MULTIPLE)===").newLine();
+            writer.writeAnswers(board);
+        }
+
+        writer.write("---------------------------").newLine();
+        return metrics;
+    }
+
+    /**
+     * Writes the runtime of every algorithm on a board as one CSV row
+     * @param metricsWriter Receives a row of metrics for every algorithm when metrics are on
+     */
+    public static void outputData(BoardInput boardInput, FileWriter fileWriter, BoardWriter metricsWriter) throws IOException {
+        String name = boardInput.name();
+        char[][] input = boardInput.grid();
+
         fileWriter.write(name);
 
         for (String alg : algorithmList) {
             fileWriter.write(",");
+            if (!supports(alg, input.length)) continue;
 
             Board board = new Board(input);
+            board.setStrategies(strategies);
+            board.setKernel(kernel);
+            // Each algorithm starts from an empty table, so its row is not helped by the algorithms before it
+            if (tableBytes > 0 && tableAlgorithms.contains(alg)) {
+                TranspositionTable table = tables.get();
+                table.clear();
+                board.setTable(table);
+            }
 
+            long allocatedBefore = metricsFormat != null ? allocatedBytes() : -1;
+            board.setBudget(newBudget());
             long preSolveTime = System.nanoTime();
             board.simplify();
+            long simplifiedTime = System.nanoTime();
 
-            switch (alg) {
-                case "dfs" -> board.solveDFS();
-                case "mrv" -> board.solveMRV();
-                case "lcv" -> board.solveLCV();
-            }
+            solve(board, alg);
 
             long postSolveTime = System.nanoTime();
 
             fileWriter.write("" + round((postSolveTime - preSolveTime)/1e6, 2));
+
+            boolean isSolved = board.isSolved();
+            SolveMetrics metrics = collectMetrics(boardInput, alg, board, isSolved, isSolved ? 1 : 0,
+                    simplifiedTime - preSolveTime, postSolveTime - simplifiedTime, allocatedBefore);
+            if (metricsFormat != null) formatMetrics(metrics, metricsWriter);
         }
         fileWriter.write("\n");
     }
 
+    /**
+     * Looks up a kernel by name. The vector kernel falls back to the scalar kernel when it was not built or its module is missing
+     * @return The kernel, or null after printing an error if the name is unknown
+     */
+    private static UnitKernel parseKernel(String name) {
+        UnitKernel parsed = UnitKernel.forName(name.toLowerCase());
+        if (parsed != null) return parsed;
+
+        if (name.equalsIgnoreCase("vector")) {
+            System.err.println("The vector kernel needs a build with -P vector and --add-modules jdk.incubator.vector, using the scalar kernel");
+            return UnitKernel.SCALAR;
+        }
+        System.err.println("Invalid kernel: " + name);
+        System.err.println("Allowed kernels: " + Arrays.toString(UnitKernel.NAMES));
+        return null;
+    }
+
+    /**
+     * @return If the algorithm can solve boards of this width
+     */
+    static boolean supports(String algorithm, int size) {
+        return size == 9 || !nineByNineOnly.contains(algorithm);
+    }
+
+    /**
+     * @return The algorithms the portfolio races on a board of this width
+     */
+    static List<String> portfolioEngines(int size) {
+        return algorithmList.stream()
+                .filter(a -> !notInPortfolio.contains(a) && supports(a, size))
+                .toList();
+    }
+
+    /**
+     * Runs the search algorithm on a simplified board
+     *
+     * @param board The board
+     * @param algorithm The algorithm from {@link #algorithmList}
+     * @return The algorithm that searched the board, which for the portfolio is the engine that solved it or null
+     */
+    static String solve(Board board, String algorithm) {
+        switch (algorithm) {
+            case "dfs" -> board.solveDFS();
+            case "mrv" -> board.solveMRV();
+            case "lcv" -> board.solveLCV();
+            case "flcv" -> board.solveFastLCV();
+            case "trail" -> board.solveTrail();
+            case "dlx" -> board.solveDLX();
+            case "pmrv" -> board.solveParallelMRV();
+            case RESTARTS -> board.solveRestartMRV(RestartSchedule.of(restartSchedule, restartBase), seed);
+            case PORTFOLIO -> {
+                return Portfolio.solve(board, portfolioEngines(board.getSize()));
+            }
+        }
+        return algorithm;
+    }
+
     /**
      * Rounds a number to the specified number of decimal places
      *
@@ -0,0 +1,78 @@
+package com.github.gavvydizzle;
+
+/**
+ * Finds n positions in a row/col/grid whose possible answers together contain only n numbers.
+ * Those numbers must go in these positions, so they are removed from the rest of the row/col/grid.
+ */
+public class NakedSubset implements Strategy {
+
+    private final int size;
+
+    /**
+     * @param size The number of positions in the subset, 2 for pairs and 3 for triples
+     */
+    public NakedSubset(int size) {
+        this.size = size;
+    }
+
+    @Override
+    public String getName() {
+        return size == 2 ? "nakedpair" : "nakedtriple";
+    }
+
+    @Override
+    public boolean apply(Board board) {
+        Geometry geometry = board.getGeometry();
+        boolean changed = false;
+        int[] cells = new int[geometry.size];
+
+        for (int[] unit : geometry.units) {
+            // Only unsolved positions with few enough possible answers can be part of a subset
+            int n = 0;
+            int open = 0;
+            for (int cell : unit) {
+                int mask = board.getCandidates(cell);
+                if (mask != 0) open++;
+                if (mask != 0 && Integer.bitCount(mask) <= size) cells[n++] = cell;
+            }
+            if (n < size || open <= size) continue;
+
+            changed |= search(board, unit, cells, n, 0, 0, 0);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+
+    private boolean search(Board board, int[] unit, int[] cells, int n, int start, int depth, int union) {
+        if (depth == size) {
+            if (Integer.bitCount(union) != size) return false;
+            return removeFromOthers(board, unit, union);
+        }
+
+        boolean changed = false;
+        for (int i = start; i < n; i++) {
+            int next = union | board.getCandidates(cells[i]);
+            if (Integer.bitCount(next) > size) continue;
+
+            // Skip positions that earlier removals have already solved
+            if (board.getCandidates(cells[i]) == 0) continue;
+
+            changed |= search(board, unit, cells, n, i + 1, depth + 1, next);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+
+    private static boolean removeFromOthers(Board board, int[] unit, int union) {
+        boolean changed = false;
+        for (int cell : unit) {
+            int mask = board.getCandidates(cell);
+            // Positions of the subset have no possible answers outside the union
+            if (mask == 0 || (mask & ~union) == 0) continue;
+
+            changed |= board.eliminate(cell, union);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.gavvydizzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The packed binary format for large collections of boards of one size. Every board is a record of the same length,
+ * so board i starts at {@code HEADER_SIZE + i * recordSize} and a file can be read at any index or scanned through a memory map.
+ * <p>
+ * All numbers are little-endian. The 32 byte header is:
+ * <pre>
+ *  0  magic "SDKP"
+ *  4  u16 version, 1
+ *  6  u8  board width: 9, 16 or 25
+ *  7  u8  bits per position: 4 for 9x9 boards, 5 for larger boards
+ *  8  u32 record size in bytes
+ * 12  u32 flags, bit 0 is set when the file has a name index
+ * 16  u64 number of boards
+ * 24  u64 offset of the name index, 0 without one
+ * </pre>
+ * A record holds the answer of every position in row-major order, 0 for unknown positions, packed from the lowest bit
+ * of the first byte. A 9x9 board takes 41 bytes.
+ * <p>
+ * The name index is {@code count+1} u64 offsets followed by the UTF-8 names, where name i is the bytes from offset i
+ * to offset i+1, counted from the end of the offsets. Boards of a file without names are named by their index, from #1.
+ */
+public final class PackedCorpus {
+
+    /**
+     * The file extension of packed files
+     */
+    public static final String EXTENSION = ".sdkp";
+
+    static final int HEADER_SIZE = 32;
+    static final int VERSION = 1;
+    static final int FLAG_NAMES = 1;
+    private static final byte[] MAGIC = "SDKP".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * The layout of the boards in a file, as read from its header
+     * @param size The width of the boards
+     * @param bits The bits of each position
+     * @param recordSize The bytes of each board
+     * @param count The number of boards
+     * @param nameIndex The offset of the name index, or 0 if the boards are not named
+     */
+    record Header(int size, int bits, int recordSize, long count, long nameIndex) {
+
+        /**
+         * @return The layout of a file of boards of this width with no boards yet
+         */
+        static Header of(int size) {
+            int bits = size <= 15 ? 4 : 5;
+            return new Header(size, bits, (size * size * bits + 7) / 8, 0, 0);
+        }
+
+        Header withCount(long count, long nameIndex) {
+            return new Header(size, bits, recordSize, count, nameIndex);
+        }
+
+        void write(ByteBuffer buffer) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(MAGIC);
+            buffer.putShort((short) VERSION);
+            buffer.put((byte) size);
+            buffer.put((byte) bits);
+            buffer.putInt(recordSize);
+            buffer.putInt(nameIndex != 0 ? FLAG_NAMES : 0);
+            buffer.putLong(count);
+            buffer.putLong(nameIndex);
+        }
+
+        /**
+         * @throws IOException If the header is not that of a packed file this version can read
+         */
+        static Header read(ByteBuffer buffer) throws IOException {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a packed board file");
+            }
+            int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported packed file version: " + version);
+            }
+
+            int size = buffer.get();
+            int bits = buffer.get();
+            int recordSize = buffer.getInt();
+            int flags = buffer.getInt();
+            long count = buffer.getLong();
+            long nameIndex = buffer.getLong();
+            Header header = of(size);
+            if (!Geometry.isSupported(size) || bits != header.bits || recordSize != header.recordSize || count < 0) {
+                throw new IOException("Invalid packed file header");
+            }
+            return header.withCount(count, (flags & FLAG_NAMES) != 0 ? nameIndex : 0);
+        }
+    }
+
+    private PackedCorpus() {}
+
+    /**
+     * Packs the answers of a board into a record
+     * @param answers The answer of every position in row-major order, 0 for unknown positions
+     * @param record Receives the record, at least {@link Header#recordSize()} bytes. Only set bits are written, so it must start zeroed
+     */
+    static void encode(int[] answers, int bits, byte[] record) {
+        for (int cell = 0, bit = 0; cell < answers.length; cell++, bit += bits) {
+            int shifted = answers[cell] << (bit & 7);
+            record[bit >> 3] |= (byte) shifted;
+            if ((shifted >> 8) != 0) record[(bit >> 3) + 1] |= (byte) (shifted >> 8);
+        }
+    }
+
+    /**
+     * Unpacks a record into the answers of a board
+     * @param record The record, with one byte after it that may be read, see {@link #decodeLength(Header)}
+     * @param answers Receives the answer of every position in row-major order
+     */
+    static void decode(byte[] record, int bits, int[] answers) {
+        int mask = (1 << bits) - 1;
+        for (int cell = 0, bit = 0; cell < answers.length; cell++, bit += bits) {
+            int i = bit >> 3;
+            int word = (record[i] & 0xFF) | (record[i + 1] & 0xFF) << 8;
+            answers[cell] = (word >> (bit & 7)) & mask;
+        }
+    }
+
+    /**
+     * @return The length of a buffer that {@link #decode(byte[], int, int[])} can read a record from
+     */
+    static int decodeLength(Header header) {
+        return header.recordSize() + 1;
+    }
+}
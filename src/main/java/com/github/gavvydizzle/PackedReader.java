@@ -0,0 +1,183 @@
+package com.github.gavvydizzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads boards from a file in the packed format of {@link PackedCorpus} through a memory map.
+ * Any board can be read by its index without reading the boards before it, and {@link #board(long)} builds a
+ * {@link Board} straight from the packed record without going through a character grid.
+ * <p>
+ * Not safe to use from multiple threads. Open the file once per thread instead, which shares the mapped pages.
+ */
+public class PackedReader implements BoardFile {
+
+    // Files are mapped in chunks, since one map holds at most 2GB
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_SIZE = 1L << CHUNK_BITS;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long length;
+    private final MappedByteBuffer[] chunks;
+    private final PackedCorpus.Header header;
+    private final byte[] record;
+    private final int[] answers;
+    private final byte[] offsets = new byte[2 * Long.BYTES];
+    private long nextIndex = 0;
+
+    /**
+     * @throws IOException If the file cannot be read, is not a packed file, or is shorter than its header says
+     */
+    public PackedReader(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            length = channel.size();
+            if (length < PackedCorpus.HEADER_SIZE) {
+                throw new IOException(path + " is not a packed board file");
+            }
+
+            chunks = new MappedByteBuffer[(int) ((length + CHUNK_SIZE - 1) >> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(CHUNK_SIZE, length - start));
+            }
+
+            ByteBuffer bytes = ByteBuffer.allocate(PackedCorpus.HEADER_SIZE);
+            read(0, bytes.array(), PackedCorpus.HEADER_SIZE);
+            header = PackedCorpus.Header.read(bytes);
+
+            long end = PackedCorpus.HEADER_SIZE + header.count() * header.recordSize();
+            if (length < end || (header.nameIndex() != 0 && length < header.nameIndex() + (header.count() + 1) * Long.BYTES)) {
+                throw new IOException(path + " is truncated");
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        record = new byte[PackedCorpus.decodeLength(header)];
+        answers = new int[header.size() * header.size()];
+    }
+
+    /**
+     * @return The number of boards in the file
+     */
+    public long size() {
+        return header.count();
+    }
+
+    /**
+     * @return The width of the boards in the file
+     */
+    public int getBoardSize() {
+        return header.size();
+    }
+
+    public boolean hasNames() {
+        return header.nameIndex() != 0;
+    }
+
+    /**
+     * Reads a board as a character grid, as {@link BoardReader} does
+     * @param index The index of the board, from 0
+     */
+    public BoardInput get(long index) throws IOException {
+        decode(index);
+        int size = header.size();
+        char[][] grid = new char[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                grid[i][j] = Geometry.toChar(answers[i*size+j]);
+            }
+        }
+        return new BoardInput(name(index), grid);
+    }
+
+    /**
+     * Builds a board straight from its record
+     * @param index The index of the board, from 0
+     */
+    public Board board(long index) throws IOException {
+        decode(index);
+        return new Board(header.size(), answers);
+    }
+
+    /**
+     * @param index The index of the board, from 0
+     * @return The name of the board, or its number from #1 if the file has no names
+     */
+    public String name(long index) throws IOException {
+        checkIndex(index);
+        if (header.nameIndex() == 0) return "#" + (index + 1);
+
+        read(header.nameIndex() + index * Long.BYTES, offsets, offsets.length);
+        ByteBuffer bytes = ByteBuffer.wrap(offsets).order(ByteOrder.LITTLE_ENDIAN);
+        long start = bytes.getLong();
+        long end = bytes.getLong();
+        long names = header.nameIndex() + (header.count() + 1) * Long.BYTES;
+        if (start < 0 || end < start || end - start > Integer.MAX_VALUE || names + end > length) {
+            throw new IOException(path + " has an invalid name index at board " + (index + 1));
+        }
+
+        byte[] name = new byte[(int) (end - start)];
+        read(names + start, name, name.length);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the boards in order, starting from the first
+     * @return The next board or null when there are no boards left
+     */
+    @Override
+    public BoardInput next() throws IOException {
+        if (nextIndex >= header.count()) return null;
+        return get(nextIndex++);
+    }
+
+    private void decode(long index) throws IOException {
+        checkIndex(index);
+        read(PackedCorpus.HEADER_SIZE + index * header.recordSize(), record, header.recordSize());
+        PackedCorpus.decode(record, header.bits(), answers);
+
+        int size = header.size();
+        for (int ans : answers) {
+            if (ans > size) {
+                throw new IOException(path + " has an invalid answer in board " + (index + 1));
+            }
+        }
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= header.count()) {
+            throw new IndexOutOfBoundsException("Board " + index + " of " + header.count());
+        }
+    }
+
+    /**
+     * Copies bytes of the file, which may span two chunks
+     */
+    private void read(long position, byte[] dst, int bytes) {
+        int copied = 0;
+        while (copied < bytes) {
+            MappedByteBuffer chunk = chunks[(int) (position >> CHUNK_BITS)];
+            int offset = (int) (position & (CHUNK_SIZE - 1));
+            int n = Math.min(bytes - copied, chunk.limit() - offset);
+            chunk.get(offset, dst, copied, n);
+            copied += n;
+            position += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
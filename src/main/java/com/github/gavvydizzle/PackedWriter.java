@@ -0,0 +1,165 @@
+package com.github.gavvydizzle;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Writes boards to a file in the packed format of {@link PackedCorpus}.
+ * The number of boards does not need to be known up front: the header is written when the writer is closed.
+ * Names are collected in temporary files next to the output and appended as the name index on close.
+ */
+public class PackedWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final PackedCorpus.Header header;
+    private final int[] answers;
+    private final byte[] record;
+    private long count = 0;
+
+    // The names, and the offset where every name ends, or null when names are not kept
+    private final Path namesFile;
+    private final Path endsFile;
+    private final OutputStream names;
+    private final OutputStream ends;
+    private final byte[] end = new byte[Long.BYTES];
+    private long namesLength = 0;
+
+    /**
+     * @param path The output file, which is replaced
+     * @param size The width of every board in the file
+     * @param keepNames If the names of the boards are stored
+     */
+    public PackedWriter(Path path, int size, boolean keepNames) throws IOException {
+        this.path = path;
+        header = PackedCorpus.Header.of(size);
+        answers = new int[size * size];
+        record = new byte[header.recordSize()];
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        channel.position(PackedCorpus.HEADER_SIZE);
+
+        if (keepNames) {
+            Path dir = path.toAbsolutePath().getParent();
+            namesFile = Files.createTempFile(dir, "names", ".tmp");
+            endsFile = Files.createTempFile(dir, "ends", ".tmp");
+            names = new BufferedOutputStream(Files.newOutputStream(namesFile), BUFFER_SIZE);
+            ends = new BufferedOutputStream(Files.newOutputStream(endsFile), BUFFER_SIZE);
+        }
+        else {
+            namesFile = null;
+            endsFile = null;
+            names = null;
+            ends = null;
+        }
+    }
+
+    /**
+     * Appends a board
+     * @throws IOException If the board is not the width of the file or it cannot be written
+     */
+    public void write(BoardInput input) throws IOException {
+        char[][] grid = input.grid();
+        int size = header.size();
+        if (grid.length != size) {
+            throw new IOException("Board " + input.name() + " is " + grid.length + "x" + grid.length
+                    + ", but " + path + " holds " + size + "x" + size + " boards");
+        }
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                answers[i*size+j] = Geometry.toAnswer(grid[i][j]);
+            }
+        }
+        Arrays.fill(record, (byte) 0);
+        PackedCorpus.encode(answers, header.bits(), record);
+
+        if (buffer.remaining() < record.length) flush();
+        buffer.put(record);
+        count++;
+
+        if (names != null) {
+            byte[] name = input.name().getBytes(StandardCharsets.UTF_8);
+            names.write(name);
+            namesLength += name.length;
+            ByteBuffer.wrap(end).order(ByteOrder.LITTLE_ENDIAN).putLong(namesLength);
+            ends.write(end);
+        }
+    }
+
+    /**
+     * @return The number of boards written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Appends the name index and writes the header
+     */
+    @Override
+    public void close() throws IOException {
+        try (channel) {
+            flush();
+
+            long nameIndex = 0;
+            if (names != null) {
+                names.close();
+                ends.close();
+                nameIndex = PackedCorpus.HEADER_SIZE + count * header.recordSize();
+
+                // The offsets start with the start of the first name
+                buffer.putLong(0);
+                flush();
+                append(endsFile);
+                append(namesFile);
+            }
+
+            header.withCount(count, nameIndex).write(buffer);
+            buffer.flip();
+            channel.position(0);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        } finally {
+            if (names != null) {
+                Files.deleteIfExists(namesFile);
+                Files.deleteIfExists(endsFile);
+            }
+        }
+    }
+
+    /**
+     * Copies a file to the end of the output
+     */
+    private void append(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            long copied = 0;
+            while (copied < size) {
+                copied += in.transferTo(copied, size - copied, channel);
+            }
+        }
+    }
+}
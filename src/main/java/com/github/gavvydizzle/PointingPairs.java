@@ -0,0 +1,63 @@
+package com.github.gavvydizzle;
+
+/**
+ * Finds numbers whose possible positions in a 3x3 grid all share one row or column.
+ * The number must be placed in that part of the row/col, so it is removed from the rest of the row/col.
+ */
+public class PointingPairs implements Strategy {
+
+    @Override
+    public String getName() {
+        return "pointing";
+    }
+
+    @Override
+    public boolean apply(Board board) {
+        Geometry geometry = board.getGeometry();
+        int n = geometry.size;
+        boolean changed = false;
+        // The rows and columns that each number is possible in, one bit per row/col
+        int[] rows = new int[n];
+        int[] cols = new int[n];
+
+        for (int box = 2 * n; box < 3 * n; box++) {
+            for (int d = 0; d < n; d++) {
+                rows[d] = 0;
+                cols[d] = 0;
+            }
+            for (int cell : geometry.units[box]) {
+                for (int m = board.getCandidates(cell); m != 0; m &= m - 1) {
+                    int d = Integer.numberOfTrailingZeros(m);
+                    rows[d] |= 1 << (cell / n);
+                    cols[d] |= 1 << (cell % n);
+                }
+            }
+
+            for (int d = 0; d < n; d++) {
+                if (Integer.bitCount(rows[d]) == 1) {
+                    changed |= removeOutside(board, Integer.numberOfTrailingZeros(rows[d]), box, 1 << d);
+                }
+                else if (Integer.bitCount(cols[d]) == 1) {
+                    changed |= removeOutside(board, n + Integer.numberOfTrailingZeros(cols[d]), box, 1 << d);
+                }
+                if (board.isDeadEnd()) return true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Removes a number from the positions of a row/col that are not in the given 3x3 grid
+     */
+    private static boolean removeOutside(Board board, int line, int box, int bit) {
+        Geometry geometry = board.getGeometry();
+        boolean changed = false;
+        for (int cell : geometry.units[line]) {
+            if (geometry.cellUnits[cell][2] == box) continue;
+
+            changed |= board.eliminate(cell, bit);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.gavvydizzle;
+
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Races several algorithms on independent copies of a simplified board, each on its own thread.
+ * The first engine to solve its copy wins. The others are stopped by exhausting their budgets,
+ * so they unwind at their next search node.
+ */
+public final class Portfolio {
+
+    // Shared by every race, so a board does not pay for starting threads
+    private static final ExecutorService POOL = Executors.newCachedThreadPool(task -> {
+        Thread thread = new Thread(task, "portfolio");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Portfolio() {}
+
+    /**
+     * Races the engines on copies of a simplified board. The answers, iterations and statistics of the winner are copied
+     * into the board. When no engine wins they come from the first engine to finish.
+     * Every copy gets its own copy of the board's budget, and the board counts as timed out when no engine
+     * solved it and one of them ran out of budget.
+     *
+     * @param board The simplified board
+     * @param engines The algorithms to race, see {@link Main#solve(Board, String)}
+     * @return The engine that solved the board, or null if none did
+     */
+    public static String solve(Board board, List<String> engines) {
+        CompletionService<Integer> race = new ExecutorCompletionService<>(POOL);
+        Board[] copies = new Board[engines.size()];
+        Budget[] budgets = new Budget[engines.size()];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = board.copyBoard();
+            budgets[i] = board.getBudget().copy();
+            copies[i].setBudget(budgets[i]);
+
+            int engine = i;
+            race.submit(() -> {
+                Main.solve(copies[engine], engines.get(engine));
+                return engine;
+            });
+        }
+
+        // Every engine is waited for, so no search still uses its copy once this returns
+        int winner = -1;
+        int first = -1;
+        boolean timedOut = false;
+        for (int i = 0; i < copies.length; i++) {
+            int engine;
+            try {
+                engine = race.take().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while racing engines", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Engine failed", e.getCause());
+            }
+            if (first == -1) first = engine;
+
+            if (winner == -1 && copies[engine].solved()) {
+                winner = engine;
+                for (Budget budget : budgets) {
+                    budget.exhaust();
+                }
+            }
+            else if (winner == -1 && copies[engine].isTimedOut()) {
+                timedOut = true;
+            }
+        }
+
+        board.acceptSearch(copies[winner != -1 ? winner : first]);
+        if (winner != -1) return engines.get(winner);
+
+        if (timedOut) board.getBudget().exhaust();
+        return null;
+    }
+}
@@ -1,41 +1,43 @@
 package com.github.gavvydizzle;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.List;
 
 public class Position {
 
     private int answer;
-    private final ArrayList<Integer> possibleAnswers;
+    private int candidates;
 
     public Position() {
         this.answer = 0;
-        possibleAnswers = new ArrayList<>(9);
-        for (int i = 1; i <= 9; i++) {
-            possibleAnswers.add(i);
-        }
+        this.candidates = Candidates.ALL;
     }
 
     public Position(int answer) {
         this.answer = answer;
-        possibleAnswers = new ArrayList<>();
+        this.candidates = 0;
+    }
+
+    Position(int answer, int candidates) {
+        this.answer = answer;
+        this.candidates = candidates;
     }
 
     /**
      * @return A clone of this position
      */
     public Position clonePosition() {
-        Position np = new Position(answer);
-        np.possibleAnswers.addAll(this.possibleAnswers);
-        return np;
+        return new Position(answer, candidates);
     }
 
-    public void removePossibleAnswers(Collection<Integer> answers) {
-        possibleAnswers.removeAll(answers);
+    /**
+     * @param mask A candidate mask of the answers to remove
+     */
+    public void removePossibleAnswers(int mask) {
+        candidates &= ~mask;
     }
 
     public void removePossibleAnswer(int answer) {
-        possibleAnswers.remove(Integer.valueOf(answer));
+        candidates &= ~Candidates.bit(answer);
     }
 
     /**
@@ -44,7 +46,7 @@ public class Position {
      */
     public void solve(int answer) {
         this.answer = answer;
-        possibleAnswers.clear();
+        candidates = 0;
     }
 
     public int getAnswer() {
@@ -55,11 +57,28 @@ public class Position {
         this.answer = answer;
     }
 
-    public ArrayList<Integer> getPossibleAnswers() {
-        return possibleAnswers;
+    public boolean hasPossibleAnswer(int answer) {
+        return Candidates.contains(candidates, answer);
+    }
+
+    /**
+     * @return The possible answers as a candidate mask
+     * @see Candidates
+     */
+    public int getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Kept for callers that expect a list. This allocates a new list on every call,
+     * so prefer {@link #getCandidates()} in hot code.
+     * @return A new list of the possible answers in ascending order
+     */
+    public List<Integer> getPossibleAnswers() {
+        return Candidates.toList(candidates);
     }
 
     public int getNumPossibleAnswers() {
-        return possibleAnswers.size();
+        return Integer.bitCount(candidates);
     }
 }
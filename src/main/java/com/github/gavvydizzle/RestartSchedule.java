@@ -0,0 +1,77 @@
+package com.github.gavvydizzle;
+
+/**
+ * The node limit of each run of a restarting search.
+ * Limits grow without bound, so a board is always solved or shown to have no solution eventually.
+ */
+public final class RestartSchedule {
+
+    /**
+     * The names accepted by {@link #of(String, long)}
+     */
+    public static final String[] NAMES = {"luby", "geometric"};
+
+    // The growth of each geometric run
+    private static final double GEOMETRIC_FACTOR = 1.5;
+
+    private final String name;
+    private final long base;
+
+    private RestartSchedule(String name, long base) {
+        this.name = name;
+        this.base = base;
+    }
+
+    /**
+     * @param name A name from {@link #NAMES}
+     * @param base The node limit of the first run
+     * @return The schedule, or null if the name is unknown
+     */
+    public static RestartSchedule of(String name, long base) {
+        return switch (name) {
+            case "luby", "geometric" -> new RestartSchedule(name, base);
+            default -> null;
+        };
+    }
+
+    /**
+     * @param run The run, counting from 0
+     * @return The number of nodes the run may search before the search restarts
+     */
+    public long limit(int run) {
+        if (name.equals("luby")) return base * luby(run);
+
+        double limit = base * Math.pow(GEOMETRIC_FACTOR, run);
+        return limit >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) limit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getBase() {
+        return base;
+    }
+
+    /**
+     * The Luby sequence 1 1 2 1 1 2 4 1 1 2 1 1 2 4 8 ..., which is within a constant factor of the best fixed
+     * schedule for any runtime distribution
+     * @param run The index in the sequence, counting from 0
+     */
+    private static long luby(int run) {
+        // Find the smallest complete subsequence 2^k-1 long that contains the run, then the run's position inside it
+        long size = 1;
+        int power = 0;
+        while (size < run + 1) {
+            size = 2 * size + 1;
+            power++;
+        }
+        long x = run;
+        while (size - 1 != x) {
+            size = (size - 1) >> 1;
+            power--;
+            x = x % size;
+        }
+        return 1L << power;
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.gavvydizzle;
+
+/**
+ * Checks rows/cols/grids one position at a time, see {@link UnitKernel#SCALAR}.
+ * The checks run at every search node, so 9x9 boards use loops over the constants of {@link Units}.
+ */
+final class ScalarUnitKernel implements UnitKernel {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void removeInvalidAnswers(Geometry geometry, Position[] board) {
+        for (int[] unit : geometry.units) {
+            int mask = 0;
+            for (int cell : unit) {
+                int ans = board[cell].getAnswer();
+                if (ans != 0) {
+                    mask |= Candidates.bit(ans);
+                }
+            }
+            if (mask == 0) continue;
+
+            for (int cell : unit) {
+                board[cell].removePossibleAnswers(mask);
+            }
+        }
+    }
+
+    @Override
+    public boolean containsInvalidAnswers(Geometry geometry, Position[] board) {
+        if (geometry.size == 9) return containsInvalidAnswersNine(board);
+
+        for (int u = geometry.units.length - 1; u >= 0; u--) {
+            int seen = 0;
+            for (int cell : geometry.units[u]) {
+                int ans = board[cell].getAnswer();
+                if (ans == 0) continue;
+
+                int bit = Candidates.bit(ans);
+                if ((seen & bit) != 0) return true;
+                seen |= bit;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean containsInvalidAnswersNine(Position[] board) {
+        for (int u = 26; u >= 0; u--) {
+            int seen = 0;
+            for (int cell : Units.UNITS[u]) {
+                int ans = board[cell].getAnswer();
+                if (ans == 0) continue;
+
+                int bit = Candidates.bit(ans);
+                if ((seen & bit) != 0) return true;
+                seen |= bit;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean containsEmptyPossibilities(Position[] board) {
+        for (int cell = board.length - 1; cell >= 0; cell--) {
+            if (board[cell].getAnswer() == 0 && board[cell].getCandidates() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isSolved(Geometry geometry, Position[] board) {
+        if (geometry.size == 9) return isSolvedNine(board);
+
+        for (Position position : board) {
+            if (position.getAnswer() == 0) return false;
+        }
+
+        for (int[] unit : geometry.units) {
+            int seen = 0;
+            for (int cell : unit) {
+                seen |= Candidates.bit(board[cell].getAnswer());
+            }
+
+            if (seen != geometry.all) return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isSolvedNine(Position[] board) {
+        for (int cell = 0; cell < 81; cell++) {
+            if (board[cell].getAnswer() == 0) return false;
+        }
+
+        for (int[] unit : Units.UNITS) {
+            int seen = 0;
+            for (int cell : unit) {
+                seen |= Candidates.bit(board[cell].getAnswer());
+            }
+
+            if (seen != Candidates.ALL) return false;
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.gavvydizzle;
+
+/**
+ * Counters that describe the shape of a search beyond its node count.
+ * Every search thread fills its own instance, and instances are summed once the threads are done,
+ * so updating them costs a field increment.
+ */
+public class SearchStats {
+
+    private long backtracks = 0;
+    // Child boards rejected because propagation failed, a position had no possible answers left,
+    // or a row/col/grid contained the same answer twice
+    private long propagationDeadEnds = 0;
+    private long emptyDeadEnds = 0;
+    private long invalidDeadEnds = 0;
+    private int peakDepth = 0;
+
+    /**
+     * Records a search node at the given depth
+     */
+    public void visit(int depth) {
+        if (depth > peakDepth) peakDepth = depth;
+    }
+
+    /**
+     * Records a searched subtree that returned without a solution, so the next answer is tried
+     */
+    public void backtrack() {
+        backtracks++;
+    }
+
+    public void propagationDeadEnd() {
+        propagationDeadEnds++;
+    }
+
+    public void emptyDeadEnd() {
+        emptyDeadEnds++;
+    }
+
+    public void invalidDeadEnd() {
+        invalidDeadEnds++;
+    }
+
+    /**
+     * Adds the counters of another search to these. The peak depth is the deeper of the two.
+     */
+    public void add(SearchStats other) {
+        backtracks += other.backtracks;
+        propagationDeadEnds += other.propagationDeadEnds;
+        emptyDeadEnds += other.emptyDeadEnds;
+        invalidDeadEnds += other.invalidDeadEnds;
+        peakDepth = Math.max(peakDepth, other.peakDepth);
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getPropagationDeadEnds() {
+        return propagationDeadEnds;
+    }
+
+    public long getEmptyDeadEnds() {
+        return emptyDeadEnds;
+    }
+
+    public long getInvalidDeadEnds() {
+        return invalidDeadEnds;
+    }
+
+    public int getPeakDepth() {
+        return peakDepth;
+    }
+}
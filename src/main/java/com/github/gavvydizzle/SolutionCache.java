@@ -0,0 +1,77 @@
+package com.github.gavvydizzle;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded cache of solutions keyed by the canonical form of the puzzle, so puzzles that are the same up to symmetry
+ * share one entry. Once full, the least recently used solution is evicted.
+ * Safe to use from multiple threads.
+ */
+public class SolutionCache {
+
+    private final int capacity;
+    private final Map<String, byte[]> solutions;
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param capacity The maximum number of solutions to keep
+     */
+    public SolutionCache(int capacity) {
+        this.capacity = capacity;
+        solutions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                if (size() <= SolutionCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Looks up the solution of a puzzle
+     * @param form The canonical form of the puzzle
+     * @return The answers in row-major order of the puzzle, or null on a miss
+     */
+    public synchronized int[] get(CanonicalForm form) {
+        byte[] canonical = solutions.get(form.getKey());
+        if (canonical == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return form.fromCanonical(canonical);
+    }
+
+    /**
+     * Stores the solution of a puzzle
+     * @param form The canonical form of the puzzle
+     * @param answers The answers in row-major order of the puzzle
+     */
+    public synchronized void put(CanonicalForm form, int[] answers) {
+        solutions.put(form.getKey(), form.toCanonical(answers));
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return solutions.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,96 @@
+package com.github.gavvydizzle;
+
+/**
+ * The metrics of solving one board with one algorithm.
+ * Times are in nanoseconds. Allocated bytes are those of the solving thread, or -1 when the JVM cannot measure them.
+ *
+ * @param board The board name
+ * @param algorithm The algorithm, or {@code count} when counting solutions
+ * @param size The width of the board
+ * @param solved If a solution was found
+ * @param timedOut If the search stopped because its time or node budget ran out
+ * @param solutions The number of solutions found, up to the solution limit when counting
+ * @param nodes The number of search nodes, the same as the iteration count
+ * @param stats Backtracks, dead ends by reason and the peak depth
+ * @param propagations Positions solved by propagation
+ * @param unitChecks Row/col/grid hidden single checks
+ * @param solveDepth The depth of the solution, 0 when not solved
+ * @param simplifyNanos Time spent in the initial simplification
+ * @param searchNanos Time spent searching after the initial simplification
+ * @param allocatedBytes Bytes allocated while simplifying and searching
+ */
+public record SolveMetrics(String board, String algorithm, int size, boolean solved, boolean timedOut, int solutions, long nodes,
+                           SearchStats stats, long propagations, long unitChecks, int solveDepth,
+                           long simplifyNanos, long searchNanos, long allocatedBytes) {
+
+    private static final String[] COLUMNS = {"board", "algorithm", "size", "solved", "timed_out", "solutions", "nodes", "backtracks",
+            "propagation_dead_ends", "empty_dead_ends", "invalid_dead_ends", "propagations", "unit_checks",
+            "solve_depth", "peak_depth", "simplify_ns", "search_ns", "allocated_bytes"};
+
+    /**
+     * Writes the column names of {@link #writeCsv(BoardWriter)}
+     */
+    public static void writeCsvHeader(BoardWriter writer) {
+        for (int i = 0; i < COLUMNS.length; i++) {
+            if (i > 0) writer.write(',');
+            writer.write(COLUMNS[i]);
+        }
+        writer.newLine();
+    }
+
+    /**
+     * Writes these metrics as one CSV row. The board name is quoted when it contains a comma or quote.
+     */
+    public void writeCsv(BoardWriter writer) {
+        if (board.indexOf(',') >= 0 || board.indexOf('"') >= 0) {
+            writer.write('"').write(board.replace("\"", "\"\"")).write('"');
+        }
+        else {
+            writer.write(board);
+        }
+        writer.write(',').write(algorithm);
+        long[] values = values();
+        for (long value : values) {
+            writer.write(',').write(value);
+        }
+        writer.newLine();
+    }
+
+    /**
+     * Writes these metrics as one JSON object on a single line
+     */
+    public void writeJson(BoardWriter writer) {
+        writer.write("{\"board\":\"");
+        for (int i = 0; i < board.length(); i++) {
+            char c = board.charAt(i);
+            if (c == '"' || c == '\\') {
+                writer.write('\\').write(c);
+            }
+            else if (c < ' ' || c >= 0x80) {
+                writer.write("\\u").write(String.format("%04x", (int) c));
+            }
+            else {
+                writer.write(c);
+            }
+        }
+        writer.write("\",\"algorithm\":\"").write(algorithm).write('"');
+
+        long[] values = values();
+        for (int i = 0; i < values.length; i++) {
+            writer.write(",\"").write(COLUMNS[i + 2]).write("\":");
+            // Solved and timed out are the only boolean columns
+            if (i == 1 || i == 2) writer.write(values[i] == 1 ? "true" : "false");
+            else writer.write(values[i]);
+        }
+        writer.write('}').newLine();
+    }
+
+    /**
+     * @return The numeric columns in the order of {@link #COLUMNS}, with booleans as 0 or 1
+     */
+    private long[] values() {
+        return new long[] {size, solved ? 1 : 0, timedOut ? 1 : 0, solutions, nodes, stats.getBacktracks(),
+                stats.getPropagationDeadEnds(), stats.getEmptyDeadEnds(), stats.getInvalidDeadEnds(), propagations,
+                unitChecks, solveDepth, stats.getPeakDepth(), simplifyNanos, searchNanos, allocatedBytes};
+    }
+}
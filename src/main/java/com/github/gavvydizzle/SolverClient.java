@@ -0,0 +1,66 @@
+package com.github.gavvydizzle;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A client for a {@link SolverServer} on this machine.
+ * Boards can be sent without waiting for earlier responses, which arrive in the order the boards were sent.
+ */
+public class SolverClient implements Closeable {
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final BufferedReader in;
+    private final BoardWriter writer = new BoardWriter();
+
+    /**
+     * Connects to a server listening on the loopback address
+     * @param port The port of the server
+     */
+    public SolverClient(int port) throws IOException {
+        socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        out = new BufferedOutputStream(socket.getOutputStream(), 1 << 16);
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Queues a board. Boards are sent once the buffer fills or {@link #flush()} is called
+     */
+    public void send(BoardInput input) throws IOException {
+        writer.writeInput(input);
+        writer.writeTo(out);
+    }
+
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Tells the server that no more boards will be sent. Responses can still be received
+     */
+    public void finish() throws IOException {
+        out.flush();
+        socket.shutdownOutput();
+    }
+
+    /**
+     * Waits for the next response
+     * @return The response line, or null if the server closed the connection
+     */
+    public String receive() throws IOException {
+        return in.readLine();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.gavvydizzle;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * A resident solver that keeps one JVM warm for many requests.
+ * Requests are boards in any format {@link BoardReader} accepts, sent over a loopback socket or stdin.
+ * Each board gets one response line with its cells in the line format and a status:
+ * {@code SOLVED}, {@code UNSOLVED}, {@code TIMEOUT} or {@code UNSUPPORTED}.
+ * <p>
+ * Requests may be pipelined. They are solved on a shared pool, so the pool size limits how many boards are solved at once,
+ * and the responses of a connection are written in the order of its requests.
+ * A malformed request ends the connection with an {@code ERROR} line.
+ */
+public class SolverServer {
+
+    private final String algorithm;
+    private final StrategyPipeline strategies;
+    private final UnitKernel kernel;
+    private final SolutionCache cache;
+    private final long timeoutMillis;
+    private final long maxNodes;
+    private final ExecutorService pool;
+    // Requests of one connection that may be in flight before reading waits for responses to be written
+    private final int window;
+
+    /**
+     * @param algorithm The algorithm from {@link Main#solve(Board, String)}
+     * @param threads The number of boards solved at once
+     * @param strategies The strategies run after singles, or null
+     * @param kernel The kernel that checks rows/cols/grids
+     * @param cache The solution cache, or null
+     * @param timeoutMillis The time budget of each board, 0 for no limit
+     * @param maxNodes The node budget of each board, 0 for no limit
+     */
+    public SolverServer(String algorithm, int threads, StrategyPipeline strategies, UnitKernel kernel, SolutionCache cache, long timeoutMillis, long maxNodes) {
+        this.algorithm = algorithm;
+        this.strategies = strategies;
+        this.kernel = kernel;
+        this.cache = cache;
+        this.timeoutMillis = timeoutMillis;
+        this.maxNodes = maxNodes;
+        pool = Executors.newFixedThreadPool(threads);
+        window = threads * 4;
+    }
+
+    /**
+     * Solves generated boards on the pool so the solver is compiled before the first request arrives.
+     * The boards are not added to the cache.
+     * @param boards The number of boards
+     */
+    public void warmUp(int boards) throws InterruptedException {
+        Generator generator = new Generator(0, 28, 0);
+        List<Future<?>> tasks = new ArrayList<>(boards);
+        for (int i = 0; i < boards; i++) {
+            int index = i;
+            tasks.add(pool.submit(() -> respond(generator.generate(index), false)));
+        }
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Warm-up failed", e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Accepts loopback connections until the process is stopped. Each connection is served on its own thread.
+     * @param port The port, or 0 for any free port
+     * @param ready Called with the port once the server is listening
+     */
+    public void listen(int port, IntConsumer ready) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            ready.accept(server.getLocalPort());
+            while (true) {
+                Socket socket = server.accept();
+                Thread thread = new Thread(() -> {
+                    try (socket) {
+                        serve(socket.getInputStream(), socket.getOutputStream());
+                    } catch (IOException | InterruptedException e) {
+                        System.err.println("Connection closed: " + e.getMessage());
+                    }
+                }, "connection-" + socket.getPort());
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Serves one connection until its input ends. Boards are read while earlier ones are still being solved,
+     * and a separate thread writes the responses in order as they complete.
+     * @param in The requests
+     * @param out The responses
+     */
+    public void serve(InputStream in, OutputStream out) throws IOException, InterruptedException {
+        BlockingQueue<Future<BoardWriter>> pending = new ArrayBlockingQueue<>(window);
+        // Marks the end of the requests, since the queue cannot hold null
+        Future<BoardWriter> end = CompletableFuture.completedFuture(null);
+        OutputStream responses = new BufferedOutputStream(out, 1 << 16);
+        AtomicReference<IOException> writeError = new AtomicReference<>();
+
+        // Once writing fails the remaining responses are dropped, so reading never waits on a full queue
+        Thread writer = new Thread(() -> {
+            try {
+                Future<BoardWriter> next;
+                while ((next = pending.take()) != end) {
+                    if (writeError.get() != null) continue;
+                    try {
+                        next.get().writeTo(responses);
+                        // Flush once caught up, so pipelined responses share a write
+                        if (pending.isEmpty()) responses.flush();
+                    } catch (IOException e) {
+                        writeError.set(e);
+                    } catch (ExecutionException e) {
+                        writeError.set(new IOException("Failed to solve a board", e.getCause()));
+                    }
+                }
+                if (writeError.get() == null) responses.flush();
+            } catch (IOException e) {
+                writeError.set(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "responses");
+        writer.start();
+
+        // The reader is not closed, since closing a socket's input stream closes the socket before the responses are written
+        BoardReader reader = new BoardReader(in);
+        try {
+            BoardInput input;
+            while (writeError.get() == null && (input = reader.next()) != null) {
+                BoardInput request = input;
+                pending.put(pool.submit(() -> respond(request, true)));
+            }
+        } catch (IOException e) {
+            BoardWriter error = new BoardWriter();
+            error.write("ERROR ").write(String.valueOf(e.getMessage()).replace('\n', ' ')).newLine();
+            pending.put(CompletableFuture.completedFuture(error));
+        } finally {
+            pending.put(end);
+            writer.join();
+        }
+
+        if (writeError.get() != null) throw writeError.get();
+    }
+
+    /**
+     * Solves a board and formats its response line
+     * @param useCache If the solution cache should be used
+     */
+    private BoardWriter respond(BoardInput input, boolean useCache) {
+        BoardWriter writer = new BoardWriter();
+        Board board = new Board(input.grid());
+        if (!Main.supports(algorithm, board.getSize())) {
+            writer.writeCells(board);
+            writer.write(" UNSUPPORTED").newLine();
+            return writer;
+        }
+        board.setStrategies(strategies);
+        board.setKernel(kernel);
+        board.setBudget(timeoutMillis == 0 && maxNodes == 0 ? Budget.UNLIMITED : new Budget(timeoutMillis, maxNodes));
+
+        CanonicalForm form = useCache && cache != null ? CanonicalForm.of(board) : null;
+        int[] cached = form != null ? cache.get(form) : null;
+        if (cached != null) {
+            board.setSolution(cached);
+        }
+        else {
+            board.simplify();
+            Main.solve(board, algorithm);
+        }
+
+        boolean solved = board.isSolved();
+        if (solved && form != null && cached == null) {
+            cache.put(form, board.getAnswers());
+        }
+
+        writer.writeCells(board);
+        writer.write(solved ? " SOLVED" : board.isTimedOut() ? " TIMEOUT" : " UNSOLVED").newLine();
+        return writer;
+    }
+
+    /**
+     * Stops the pool once the current boards are solved
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.gavvydizzle;
+
+/**
+ * An inference rule that removes possible answers from a board without searching.
+ * Strategies run after naked and hidden singles have been propagated, in the order given to a {@link StrategyPipeline}.
+ */
+public interface Strategy {
+
+    /**
+     * @return The name used to select this strategy and to report its statistics
+     */
+    String getName();
+
+    /**
+     * Removes every possible answer this strategy can rule out.
+     * Stops early when the board reaches a dead end.
+     * @param board The board
+     * @return True if at least one possible answer was removed
+     */
+    boolean apply(Board board);
+}
@@ -0,0 +1,116 @@
+package com.github.gavvydizzle;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs an ordered list of strategies on a board once singles are exhausted.
+ * As soon as one strategy removes a possible answer, the pipeline stops so the cheaper singles can run again.
+ * Statistics are shared by every board using the pipeline and are safe to update from multiple threads.
+ */
+public class StrategyPipeline {
+
+    // Every strategy by name, from cheapest to most expensive
+    private static final Map<String, Supplier<Strategy>> STRATEGIES = new LinkedHashMap<>();
+
+    static {
+        STRATEGIES.put("pointing", PointingPairs::new);
+        STRATEGIES.put("boxline", BoxLineReduction::new);
+        STRATEGIES.put("nakedpair", () -> new NakedSubset(2));
+        STRATEGIES.put("hiddenpair", () -> new HiddenSubset(2));
+        STRATEGIES.put("nakedtriple", () -> new NakedSubset(3));
+        STRATEGIES.put("hiddentriple", () -> new HiddenSubset(3));
+        STRATEGIES.put("xwing", XWing::new);
+    }
+
+    private final Strategy[] strategies;
+    private final LongAdder[] calls;
+    private final LongAdder[] fires;
+    private final LongAdder[] nanos;
+
+    public StrategyPipeline(List<Strategy> strategies) {
+        this.strategies = strategies.toArray(new Strategy[0]);
+        calls = new LongAdder[this.strategies.length];
+        fires = new LongAdder[this.strategies.length];
+        nanos = new LongAdder[this.strategies.length];
+        for (int i = 0; i < this.strategies.length; i++) {
+            calls[i] = new LongAdder();
+            fires[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Creates a pipeline from a comma separated list of strategy names.
+     * The name {@code all} selects every strategy from cheapest to most expensive.
+     * @param names The strategy names in the order they should run
+     * @return The pipeline
+     * @throws IllegalArgumentException If a name is unknown
+     */
+    public static StrategyPipeline parse(String names) {
+        List<Strategy> list = new ArrayList<>();
+        for (String name : names.split(",")) {
+            name = name.trim().toLowerCase();
+            if (name.equals("all")) {
+                for (Supplier<Strategy> supplier : STRATEGIES.values()) {
+                    list.add(supplier.get());
+                }
+                continue;
+            }
+
+            Supplier<Strategy> supplier = STRATEGIES.get(name);
+            if (supplier == null) {
+                throw new IllegalArgumentException("Unknown strategy: " + name);
+            }
+            list.add(supplier.get());
+        }
+        return new StrategyPipeline(list);
+    }
+
+    /**
+     * @return The names that can be passed to {@link #parse(String)}
+     */
+    public static List<String> getNames() {
+        List<String> names = new ArrayList<>(STRATEGIES.keySet());
+        names.add("all");
+        return names;
+    }
+
+    /**
+     * Runs the strategies in order until one of them removes a possible answer
+     * @param board The board
+     * @return True if a possible answer was removed
+     */
+    public boolean apply(Board board) {
+        for (int i = 0; i < strategies.length; i++) {
+            long start = System.nanoTime();
+            boolean changed = strategies[i].apply(board);
+            nanos[i].add(System.nanoTime() - start);
+            calls[i].increment();
+
+            if (changed) {
+                fires[i].increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes how often each strategy ran, how often it removed a possible answer, and the total time spent in it in microseconds
+     * @param writer The writer
+     */
+    public void writeStats(BoardWriter writer) {
+        writer.write("Strategy Calls Fires Time(us)").newLine();
+        for (int i = 0; i < strategies.length; i++) {
+            writer.write(strategies[i].getName())
+                    .write(' ').write(calls[i].sum())
+                    .write(' ').write(fires[i].sum())
+                    .write(' ').write(nanos[i].sum() / 1_000).newLine();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.github.gavvydizzle;
+
+/**
+ * A search engine that works on one mutable board stored in primitive arrays.
+ * Every change is recorded on a trail which is rewound when a branch fails,
+ * so a search node never allocates.
+ * Branching uses MRV and simplification matches {@link Board}, which keeps iteration counts comparable.
+ */
+public class TrailSolver {
+
+    private final int[] answers = new int[81];
+    private final int[] candidates = new int[81];
+
+    // Each entry packs a cell index with its previous answer and candidates.
+    // A cell changes at most 10 times on one path (9 removals and an answer), which bounds the size.
+    private final int[] trail = new int[81 * 10];
+    private int trailSize = 0;
+
+    // Cells with one remaining candidate that still need to be solved
+    private final int[] queue = new int[81];
+    private int queueSize = 0;
+
+    // Units that lost a candidate and still need to be checked for hidden singles, one bit per unit
+    private int dirtyUnits = 0;
+    private long propagations = 0;
+    private long unitChecks = 0;
+
+    private boolean solved = false;
+    private int count = 0;
+    private int solveDepth = 0;
+    private final SearchStats stats = new SearchStats();
+    private Budget budget = Budget.UNLIMITED;
+
+    /**
+     * @param answers The answer of each cell in row-major order, 0 when unsolved
+     * @param candidates The candidate mask of each cell in row-major order
+     */
+    public TrailSolver(int[] answers, int[] candidates) {
+        System.arraycopy(answers, 0, this.answers, 0, 81);
+        System.arraycopy(candidates, 0, this.candidates, 0, 81);
+    }
+
+    /**
+     * Sets the budget of the search. Once it runs out the search stops without a solution
+     * @param budget The budget, or {@link Budget#UNLIMITED}
+     */
+    public void setBudget(Budget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Finds a solution by searching from the current state
+     */
+    public void solve() {
+        search(0);
+    }
+
+    private void search(int depth) {
+        count++;
+        stats.visit(depth);
+        if (budget.isExhausted(count)) return;
+
+        // Determine the position via MRV. If multiple positions have the same number of values, the first one found will be chosen.
+        int cell = -1;
+        int min = 10;
+        for (int i = 0; i < 81; i++) {
+            if (answers[i] == 0) {
+                int numAnswers = Integer.bitCount(candidates[i]);
+                if (numAnswers < min) {
+                    min = numAnswers;
+                    cell = i;
+                }
+            }
+        }
+
+        if (cell == -1) {
+            if (isValid()) {
+                solveDepth = depth;
+                solved = true;
+            }
+            else {
+                stats.invalidDeadEnd();
+            }
+            return;
+        }
+
+        // Check all answers of this position by branching
+        for (int m = candidates[cell]; m != 0; m &= m - 1) {
+            int mark = trailSize;
+
+            if (assign(cell, Candidates.first(m)) && propagate()) {
+                search(depth + 1);
+                if (solved || budget.isExhausted()) return;
+                stats.backtrack();
+            }
+            else {
+                stats.propagationDeadEnd();
+            }
+            undo(mark);
+        }
+    }
+
+    //*********************************
+    //********** Propagation **********
+    //*********************************
+
+    /**
+     * Solves a cell and removes its answer from the row/col/grid.
+     * Cells left with one candidate are queued to be solved by {@link #propagate()}.
+     * @return False if a cell was left without candidates
+     */
+    private boolean assign(int cell, int ans) {
+        record(cell);
+        answers[cell] = ans;
+        candidates[cell] = 0;
+        dirtyUnits |= Units.CELL_UNIT_MASK[cell];
+
+        int bit = Candidates.bit(ans);
+        for (int peer : Units.PEERS[cell]) {
+            if (!eliminate(peer, bit)) return false;
+        }
+        return true;
+    }
+
+    private boolean eliminate(int cell, int bit) {
+        if ((candidates[cell] & bit) == 0) return true;
+
+        record(cell);
+        int remaining = candidates[cell] & ~bit;
+        candidates[cell] = remaining;
+        dirtyUnits |= Units.CELL_UNIT_MASK[cell];
+
+        if (remaining == 0) return fail();
+        if ((remaining & (remaining - 1)) == 0) {
+            queue[queueSize++] = cell;
+        }
+        return true;
+    }
+
+    /**
+     * Solves queued single candidates and checks the units that lost a candidate for hidden singles
+     * until no work is left
+     * @return False if a contradiction was found
+     */
+    private boolean propagate() {
+        if (!drainQueue()) return false;
+
+        while (dirtyUnits != 0) {
+            int[] unit = Units.UNITS[Integer.numberOfTrailingZeros(dirtyUnits)];
+            dirtyUnits &= dirtyUnits - 1;
+            unitChecks++;
+
+            int once = 0;
+            int twice = 0;
+            int placed = 0;
+            for (int cell : unit) {
+                int mask = candidates[cell];
+                twice |= once & mask;
+                once |= mask;
+                if (answers[cell] != 0) placed |= Candidates.bit(answers[cell]);
+            }
+
+            // A number can no longer be placed in this unit
+            if ((once | placed) != Candidates.ALL) return fail();
+
+            for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                int bit = hidden & -hidden;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) != 0) {
+                        propagations++;
+                        if (!assign(cell, Candidates.first(bit)) || !drainQueue()) return false;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return true;
+    }
+
+    private boolean drainQueue() {
+        while (queueSize > 0) {
+            int cell = queue[--queueSize];
+            if (answers[cell] != 0) continue;
+            propagations++;
+            if (!assign(cell, Candidates.first(candidates[cell]))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Clears the pending propagation work after a contradiction
+     * @return False
+     */
+    private boolean fail() {
+        queueSize = 0;
+        dirtyUnits = 0;
+        return false;
+    }
+
+    /**
+     * @return If every row/col/grid contains each number once
+     */
+    private boolean isValid() {
+        for (int[] unit : Units.UNITS) {
+            int seen = 0;
+            for (int cell : unit) {
+                int ans = answers[cell];
+                if (ans == 0) return false;
+                seen |= Candidates.bit(ans);
+            }
+            if (seen != Candidates.ALL) return false;
+        }
+        return true;
+    }
+
+    //*********************************
+    //************* Trail *************
+    //*********************************
+
+    private void record(int cell) {
+        trail[trailSize++] = cell | (answers[cell] << 8) | (candidates[cell] << 12);
+    }
+
+    /**
+     * Rewinds the board to the state it had when the trail had the given size
+     */
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int entry = trail[--trailSize];
+            int cell = entry & 0xFF;
+            answers[cell] = (entry >>> 8) & 0xF;
+            candidates[cell] = entry >>> 12;
+        }
+    }
+
+    public int getAnswer(int cell) {
+        return answers[cell];
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public SearchStats getStats() {
+        return stats;
+    }
+
+    public int getSolveDepth() {
+        return solveDepth;
+    }
+
+    public boolean solved() {
+        return solved;
+    }
+
+    /**
+     * @return The number of cells solved by propagation rather than by branching
+     */
+    public long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * @return The number of row/col/grid hidden single checks made during propagation
+     */
+    public long getUnitChecks() {
+        return unitChecks;
+    }
+}
@@ -0,0 +1,141 @@
+package com.github.gavvydizzle;
+
+import java.util.Arrays;
+
+/**
+ * A bounded table of board states whose subtree was searched without finding a solution.
+ * A state is the set of solved positions and their answers, givens included, hashed with the Zobrist keys of
+ * {@link Geometry#zobrist}. A state without a solution has none no matter how it was reached, so entries are kept across searches.
+ * Within a single search tree siblings place different answers in the same position, so no state is reached twice.
+ * Hits come from searching a board again: a board requeued after running out of budget skips what its first pass ruled out,
+ * and every restart of rmrv skips what the runs before it ruled out.
+ * <p>
+ * Entries are stored in buckets of two. The first slot keeps the entry with the largest subtree, since it is the most
+ * expensive to search again, until a later search replaces it. The second slot always takes the newest entry.
+ * Two states share a 64-bit hash with negligible probability. The table does not guard against it.
+ * <p>
+ * Not safe to use from multiple threads. Give each solving thread its own table.
+ */
+public class TranspositionTable {
+
+    // The bytes of one entry: the hash, and the search it belongs to with the size of its subtree
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] keys;
+    // The search of an entry in the upper 32 bits and the nodes of its subtree in the lower 32 bits
+    private final long[] data;
+    private final int mask;
+    private int search = 0;
+
+    // Counters of the current search
+    private long hits = 0;
+    private long misses = 0;
+    private long stores = 0;
+    private long replacements = 0;
+
+    /**
+     * @param memoryBytes The memory limit. The number of entries is the largest power of two that fits, at least 2
+     */
+    public TranspositionTable(long memoryBytes) {
+        int entries = Integer.highestOneBit((int) Math.min(Math.max(memoryBytes / ENTRY_BYTES, 2), 1 << 30));
+        keys = new long[entries];
+        data = new long[entries];
+        mask = entries - 2;
+    }
+
+    /**
+     * Resets the counters and ages the entries of earlier searches, so they can be replaced by any entry
+     */
+    public void newSearch() {
+        search++;
+        hits = 0;
+        misses = 0;
+        stores = 0;
+        replacements = 0;
+    }
+
+    /**
+     * Removes every entry, so the next search cannot use what earlier searches ruled out
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+    }
+
+    /**
+     * Looks up a state and counts a hit or a miss
+     * @param hash The hash of the state
+     * @return True if the subtree of the state is known to have no solution
+     */
+    public boolean isFailed(long hash) {
+        int bucket = (int) hash & mask;
+        if (contains(bucket, hash) || contains(bucket + 1, hash)) {
+            hits++;
+            return true;
+        }
+        misses++;
+        return false;
+    }
+
+    /**
+     * Records a state whose subtree has no solution
+     * @param hash The hash of the state
+     * @param nodes The number of nodes searched in the subtree
+     */
+    public void storeFailed(long hash, long nodes) {
+        int bucket = (int) hash & mask;
+        if (contains(bucket, hash) || contains(bucket + 1, hash)) return;
+        long entry = (long) search << 32 | Math.min(nodes, Integer.MAX_VALUE);
+        stores++;
+
+        // The first slot only gives way to an entry of an earlier search or a larger subtree
+        int slot = bucket + 1;
+        if (!isCurrent(bucket) || nodes >= (int) data[bucket]) {
+            slot = bucket;
+        }
+        if (data[slot] != 0) replacements++;
+        keys[slot] = hash;
+        data[slot] = entry;
+    }
+
+    // An empty slot has no search, since searches are numbered from 1
+    private boolean contains(int slot, long hash) {
+        return keys[slot] == hash && data[slot] != 0;
+    }
+
+    private boolean isCurrent(int slot) {
+        return (int) (data[slot] >>> 32) == search;
+    }
+
+    /**
+     * @return The number of lookups of the current search that found a failed state
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of lookups of the current search that did not
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getStores() {
+        return stores;
+    }
+
+    /**
+     * @return The number of stores of the current search that overwrote an entry
+     */
+    public long getReplacements() {
+        return replacements;
+    }
+
+    /**
+     * @return The number of entries the table can hold
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.gavvydizzle;
+
+/**
+ * The row/col/grid checks that {@link Board} runs on every new board: unions of the answers in each unit,
+ * duplicate answers, positions without possible answers and the solved check.
+ * {@link #SCALAR} visits one position at a time. The vector kernel checks the same unit of every row, column or grid
+ * at once with {@code jdk.incubator.vector}. It lives in {@code src/vector/java}, which is only compiled by the
+ * {@code vector} profile, and must be run with {@code --add-modules jdk.incubator.vector}.
+ */
+public interface UnitKernel {
+
+    /**
+     * Checks one position at a time. Works with every board size and every JVM
+     */
+    UnitKernel SCALAR = new ScalarUnitKernel();
+
+    /**
+     * The names accepted by {@link #forName(String)}
+     */
+    String[] NAMES = {"scalar", "vector"};
+
+    /**
+     * @return The name used to select this kernel
+     */
+    String getName();
+
+    /**
+     * Removes the answers of every row/col/grid from the possible answers of its positions
+     */
+    void removeInvalidAnswers(Geometry geometry, Position[] board);
+
+    /**
+     * @return If a row/col/grid contains the same answer more than once
+     */
+    boolean containsInvalidAnswers(Geometry geometry, Position[] board);
+
+    /**
+     * @return If an unsolved position has no possible answers left
+     */
+    boolean containsEmptyPossibilities(Position[] board);
+
+    /**
+     * @return If every position is solved and every row/col/grid contains every answer
+     */
+    boolean isSolved(Geometry geometry, Position[] board);
+
+    /**
+     * @return If the vector kernel can be used, which needs the {@code jdk.incubator.vector} module at runtime
+     */
+    static boolean isVectorAvailable() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    /**
+     * @param name A name from {@link #NAMES}
+     * @return The kernel, or null if the name is unknown or the vector kernel cannot be used
+     */
+    static UnitKernel forName(String name) {
+        return switch (name) {
+            case "scalar" -> SCALAR;
+            case "vector" -> isVectorAvailable() ? loadVector() : null;
+            default -> null;
+        };
+    }
+
+    /**
+     * Loads the vector kernel by name, so the default build does not depend on the incubator module
+     * @return The kernel, or null if it was not built with the {@code vector} profile
+     */
+    private static UnitKernel loadVector() {
+        try {
+            return (UnitKernel) Class.forName("com.github.gavvydizzle.VectorUnitKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.gavvydizzle;
+
+/**
+ * Precomputed index tables for a 9x9 board.
+ * Cells are indexed in row-major order, so the cell at (row, col) is {@code row*9+col}.
+ * These are the 9x9 tables of {@link Geometry} as constants, for code that is specialized to 9x9 boards.
+ */
+public final class Units {
+
+    private static final Geometry NINE = Geometry.of(9);
+
+    /**
+     * The 9 cells of every row [0,8], column [9,17] and 3x3 grid [18,26]
+     */
+    public static final int[][] UNITS = NINE.units;
+
+    /**
+     * The row, column and 3x3 grid unit that every cell belongs to
+     */
+    public static final int[][] CELL_UNITS = NINE.cellUnits;
+
+    /**
+     * The row, column and 3x3 grid unit of every cell as a mask with one bit per unit
+     */
+    public static final int[] CELL_UNIT_MASK = new int[81];
+
+    /**
+     * A mask containing all 27 units
+     */
+    public static final int ALL_UNITS = (1 << 27) - 1;
+
+    /**
+     * The 20 other cells that share a row, column or 3x3 grid with every cell
+     */
+    public static final int[][] PEERS = NINE.peers;
+
+    static {
+        for (int cell = 0; cell < 81; cell++) {
+            CELL_UNIT_MASK[cell] = (int) NINE.unitMask[cell];
+        }
+    }
+
+    private Units() {}
+}
@@ -0,0 +1,63 @@
+package com.github.gavvydizzle;
+
+/**
+ * Finds two rows where a number is possible in exactly the same two columns (or two columns with the same two rows).
+ * The number must take opposite corners of that rectangle, so it is removed from the rest of both columns (or rows).
+ */
+public class XWing implements Strategy {
+
+    @Override
+    public String getName() {
+        return "xwing";
+    }
+
+    @Override
+    public boolean apply(Board board) {
+        int n = board.getGeometry().size;
+        boolean changed = false;
+        // Rows use columns as the crossing lines and columns use rows
+        for (int base = 0; base <= n; base += n) {
+            changed |= apply(board, base, n - base);
+            if (board.isDeadEnd()) return true;
+        }
+        return changed;
+    }
+
+    private static boolean apply(Board board, int base, int cover) {
+        Geometry geometry = board.getGeometry();
+        int n = geometry.size;
+        boolean changed = false;
+        // The indices in each line where a number is possible. The index is also the crossing line
+        int[] places = new int[n];
+
+        for (int d = 0; d < n; d++) {
+            int bit = 1 << d;
+            for (int i = 0; i < n; i++) {
+                places[i] = 0;
+                int[] unit = geometry.units[base + i];
+                for (int j = 0; j < n; j++) {
+                    if ((board.getCandidates(unit[j]) & bit) != 0) places[i] |= 1 << j;
+                }
+            }
+
+            for (int a = 0; a < n; a++) {
+                if (Integer.bitCount(places[a]) != 2) continue;
+                for (int b = a + 1; b < n; b++) {
+                    if (places[b] != places[a]) continue;
+
+                    // Remove the number from both crossing lines, apart from the two base lines
+                    for (int m = places[a]; m != 0; m &= m - 1) {
+                        int[] line = geometry.units[cover + Integer.numberOfTrailingZeros(m)];
+                        for (int j = 0; j < n; j++) {
+                            if (j == a || j == b) continue;
+
+                            changed |= board.eliminate(line[j], bit);
+                            if (board.isDeadEnd()) return true;
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+}
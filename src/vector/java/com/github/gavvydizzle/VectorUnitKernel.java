@@ -0,0 +1,202 @@
+package com.github.gavvydizzle;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * Checks every row, column and grid at once with the JDK Vector API.
+ * <p>
+ * The answers are copied into a primitive table where unit u is lane u and the k-th position of every unit is one row,
+ * so the union of every unit is the OR of the rows and each unit only needs one lane operation per position.
+ * A unit contains the same answer twice exactly when the sum of its answer bits is larger than their union.
+ * 9x9 and 16x16 boards fill 27 or 48 lanes. 25x25 boards use {@link UnitKernel#SCALAR}.
+ * <p>
+ * Needs {@code --add-modules jdk.incubator.vector}, see {@link UnitKernel#isVectorAvailable()}.
+ */
+final class VectorUnitKernel implements UnitKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // The tables of 9x9 and 16x16 boards
+    private final Layout nine = new Layout(Geometry.of(9));
+    private final Layout sixteen = new Layout(Geometry.of(16));
+
+    @Override
+    public String getName() {
+        return "vector";
+    }
+
+    @Override
+    public void removeInvalidAnswers(Geometry geometry, Position[] board) {
+        Layout layout = layout(geometry);
+        if (layout == null) {
+            SCALAR.removeInvalidAnswers(geometry, board);
+            return;
+        }
+
+        Scratch scratch = layout.scratch.get();
+        int[] units = scratch.units;
+        int[] unions = scratch.unions;
+        layout.gatherAnswers(board, units);
+        for (int lane = 0; lane < layout.width; lane += LANES) {
+            IntVector union = IntVector.zero(SPECIES);
+            for (int row = lane; row < units.length; row += layout.width) {
+                union = union.or(IntVector.fromArray(SPECIES, units, row));
+            }
+            union.intoArray(unions, lane);
+        }
+
+        int[][] cellUnits = geometry.cellUnits;
+        for (int cell = 0; cell < board.length; cell++) {
+            int[] u = cellUnits[cell];
+            int mask = unions[u[0]] | unions[u[1]] | unions[u[2]];
+            if (mask != 0) {
+                board[cell].removePossibleAnswers(mask);
+            }
+        }
+    }
+
+    @Override
+    public boolean containsInvalidAnswers(Geometry geometry, Position[] board) {
+        Layout layout = layout(geometry);
+        if (layout == null) return SCALAR.containsInvalidAnswers(geometry, board);
+
+        int[] units = layout.scratch.get().units;
+        layout.gatherAnswers(board, units);
+        for (int lane = 0; lane < layout.width; lane += LANES) {
+            IntVector union = IntVector.zero(SPECIES);
+            IntVector sum = IntVector.zero(SPECIES);
+            for (int row = lane; row < units.length; row += layout.width) {
+                IntVector bits = IntVector.fromArray(SPECIES, units, row);
+                union = union.or(bits);
+                sum = sum.add(bits);
+            }
+            if (sum.compare(VectorOperators.NE, union).anyTrue()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean containsEmptyPossibilities(Position[] board) {
+        Layout layout = board.length == nine.cells ? nine : board.length == sixteen.cells ? sixteen : null;
+        if (layout == null) return SCALAR.containsEmptyPossibilities(board);
+
+        // A position is empty when it has neither an answer nor a possible answer
+        int[] cells = layout.scratch.get().cells;
+        for (int cell = 0; cell < board.length; cell++) {
+            Position position = board[cell];
+            cells[cell] = position.getAnswer() | position.getCandidates();
+        }
+        for (int cell = 0; cell < cells.length; cell += LANES) {
+            if (IntVector.fromArray(SPECIES, cells, cell).compare(VectorOperators.EQ, 0).anyTrue()) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isSolved(Geometry geometry, Position[] board) {
+        Layout layout = layout(geometry);
+        if (layout == null) return SCALAR.isSolved(geometry, board);
+
+        int[] units = layout.scratch.get().units;
+        if (!layout.gatherAnswers(board, units)) return false;
+        for (int lane = 0; lane < layout.width; lane += LANES) {
+            IntVector union = IntVector.zero(SPECIES);
+            for (int row = lane; row < units.length; row += layout.width) {
+                union = union.or(IntVector.fromArray(SPECIES, units, row));
+            }
+            VectorMask<Integer> inRange = SPECIES.indexInRange(lane, layout.numUnits);
+            if (union.compare(VectorOperators.NE, geometry.all).and(inRange).anyTrue()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return The tables of the board size, or null if it is only checked by the scalar kernel
+     */
+    private Layout layout(Geometry geometry) {
+        return switch (geometry.size) {
+            case 9 -> nine;
+            case 16 -> sixteen;
+            default -> null;
+        };
+    }
+
+    /**
+     * Where the answer of every position goes in the table of a board size
+     */
+    private static final class Layout {
+
+        private final int cells;
+        private final int numUnits;
+        // The lanes of one row of the table, the number of units rounded up to whole vectors
+        private final int width;
+        // The three table indexes of every position, one for each of its units
+        private final int[] slots;
+        // Every thread gets its own tables, since boards are checked by several threads at once
+        private final ThreadLocal<Scratch> scratch;
+
+        Layout(Geometry geometry) {
+            cells = geometry.cells;
+            numUnits = geometry.units.length;
+            width = (numUnits + LANES - 1) / LANES * LANES;
+
+            slots = new int[cells * 3];
+            int[] filled = new int[cells];
+            for (int u = 0; u < numUnits; u++) {
+                int[] unit = geometry.units[u];
+                for (int k = 0; k < unit.length; k++) {
+                    int cell = unit[k];
+                    slots[cell * 3 + filled[cell]++] = k * width + u;
+                }
+            }
+
+            int tableSize = geometry.size * width;
+            int cellsSize = (cells + LANES - 1) / LANES * LANES;
+            scratch = ThreadLocal.withInitial(() -> new Scratch(tableSize, width, cellsSize));
+        }
+
+        /**
+         * Writes the answer bit of every position into the table, 0 for unsolved positions.
+         * The padding lanes are never written, so they stay 0.
+         * @return If every position is solved
+         */
+        boolean gatherAnswers(Position[] board, int[] units) {
+            boolean solved = true;
+            for (int cell = 0, s = 0; cell < cells; cell++, s += 3) {
+                int ans = board[cell].getAnswer();
+                int bit = 0;
+                if (ans != 0) bit = Candidates.bit(ans);
+                else solved = false;
+
+                units[slots[s]] = bit;
+                units[slots[s + 1]] = bit;
+                units[slots[s + 2]] = bit;
+            }
+            return solved;
+        }
+    }
+
+    /**
+     * The tables of one thread
+     */
+    private static final class Scratch {
+
+        private final int[] units;
+        private final int[] unions;
+        // The answer and possible answers of every position, with padding that never counts as empty
+        private final int[] cells;
+
+        Scratch(int tableSize, int width, int cellsSize) {
+            units = new int[tableSize];
+            unions = new int[width];
+            cells = new int[cellsSize];
+            Arrays.fill(cells, -1);
+        }
+    }
+}